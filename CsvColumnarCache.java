@@ -0,0 +1,807 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	CsvColumnarCache.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		文字コード・解析バージョンの鮮度チェック対応
+ *	2026/10/19	agent		キャッシュ作成時の一時ファイルを作成ごとに分離
+ *
+ */
+package utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * CSVカラムナキャッシュクラス。<br>
+ * <br>
+ * CSVファイルを一度読み込み、同じディレクトリにバイナリの列指向キャッシュファイル（拡張子".colcache"）を作成する。<br>
+ * 以降はキャッシュファイルをメモリマップして、CSVを解析せずにレコードを返却する。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>ブロック（{@value #BLOCK_ROWS}行）・列ごとの辞書／プレーン符号化</li>
+ * <li>ブロックごとの最小値・最大値による読み飛ばし</li>
+ * <li>元ファイルのサイズ・更新日時、作成時の文字コード・解析処理のバージョンによる鮮度チェック</li>
+ * <li>列の射影（指定列のみ取得）</li>
+ * </ul>
+ * <br>
+ * ファイル形式（数値はビッグエンディアン）
+ * <pre>
+ * ヘッダ     : マジック(int) バージョン(int) 解析バージョン(int) 元ファイルサイズ(long) 元ファイル更新日時(long)
+ *              総行数(int) 列数(int) ブロック数(int) ブロック目次位置(long) 文字コード名(文字列)
+ * ブロック   : 行数(int) 行の列数固定値(int、-1の場合は行ごとの列数int[行数]が続く)
+ *              ブロック列数(int) 列チャンク位置int[ブロック列数] 列チャンク × ブロック列数
+ * 列チャンク : 符号化(byte) 最小値(文字列) 最大値(文字列)
+ *              プレーン : 値オフセットint[行数+1] 値データ
+ *              辞書     : 辞書数(int) 辞書オフセットint[辞書数+1] 辞書データ コード幅(byte) コード[行数]
+ * ブロック目次 : (ブロック位置(long) ブロック長(int)) × ブロック数
+ * 文字列     : 長さ(int、-1の場合は値なし) UTF-8バイト列
+ * </pre>
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class CsvColumnarCache {
+
+	/*
+	 * キャッシュファイルの拡張子
+	 */
+	public static final String CACHE_EXTENSION = ".colcache";
+
+	/*
+	 * １ブロックの行数
+	 */
+	public static final int BLOCK_ROWS = 65536;
+
+	/*
+	 * マジックナンバー（"CSVC"）
+	 */
+	private static final int MAGIC = 0x43535643;
+
+	/*
+	 * ファイル形式バージョン
+	 */
+	private static final int VERSION = 2;
+
+	/*
+	 * ヘッダ長（文字コード名の長さまで）
+	 */
+	private static final int HEADER_LENGTH = 4 + 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8 + 4;
+
+	/*
+	 * 文字コード名の最大バイト数
+	 */
+	private static final int MAX_CHARSET_NAME_LENGTH = 256;
+
+	/*
+	 * 符号化：プレーン
+	 */
+	private static final byte ENCODING_PLAIN = 0;
+
+	/*
+	 * 符号化：辞書
+	 */
+	private static final byte ENCODING_DICTIONARY = 1;
+
+	/*
+	 * キャッシュファイルのチャネル
+	 */
+	private FileChannel channel;
+
+	/*
+	 * 総行数
+	 */
+	private int rowCount;
+
+	/*
+	 * 列数
+	 */
+	private int columnCount;
+
+	/*
+	 * ブロック位置
+	 */
+	private long[] blockOffsets;
+
+	/*
+	 * ブロック長
+	 */
+	private int[] blockLengths;
+
+	/*
+	 * 読み込み中ブロック番号
+	 */
+	private int currentBlockIndex = -1;
+
+	/*
+	 * 読み込み中ブロック
+	 */
+	private Block currentBlock = null;
+
+	/*
+	 * 次に読み込む行番号（ブロック内）
+	 */
+	private int currentRow = 0;
+
+	/*
+	 * メモリマップしたブロック
+	 */
+	private static class Block {
+
+		private final MappedByteBuffer buffer;
+		private final int rows;
+		private final int uniformWidth;
+		private final int widthsPosition;
+		private final int columns;
+		private final int[] columnPositions;
+
+		/*
+		 * 辞書符号化列の展開済み辞書（列ごと、プレーン列はnull）
+		 */
+		private final String[][] dictionaries;
+
+		Block(MappedByteBuffer buffer) {
+			this.buffer = buffer;
+			this.rows = buffer.getInt(0);
+			this.uniformWidth = buffer.getInt(4);
+			this.widthsPosition = 8;
+			int pos = 8 + (this.uniformWidth < 0 ? this.rows * 4 : 0);
+			this.columns = buffer.getInt(pos);
+			pos += 4;
+			this.columnPositions = new int[this.columns];
+			for (int c = 0; c < this.columns; c++) {
+				this.columnPositions[c] = buffer.getInt(pos + c * 4);
+			}
+			this.dictionaries = new String[this.columns][];
+		}
+
+		int width(int row) {
+			if (this.uniformWidth >= 0) {
+				return this.uniformWidth;
+			}
+			return this.buffer.getInt(this.widthsPosition + row * 4);
+		}
+
+		String minValue(int column) {
+			return readString(this.buffer, this.columnPositions[column] + 1);
+		}
+
+		String maxValue(int column) {
+			int pos = this.columnPositions[column] + 1;
+			return readString(this.buffer, pos + stringLength(this.buffer, pos));
+		}
+
+		String value(int column, int row) {
+			int pos = this.columnPositions[column];
+			byte encoding = this.buffer.get(pos);
+			pos += 1;
+			pos += stringLength(this.buffer, pos);
+			pos += stringLength(this.buffer, pos);
+
+			if (encoding == ENCODING_PLAIN) {
+				int dataPosition = pos + (this.rows + 1) * 4;
+				int start = this.buffer.getInt(pos + row * 4);
+				int end = this.buffer.getInt(pos + (row + 1) * 4);
+				return decode(this.buffer, dataPosition + start, end - start);
+			}
+
+			int dictCount = this.buffer.getInt(pos);
+			int offsetPosition = pos + 4;
+			int dataPosition = offsetPosition + (dictCount + 1) * 4;
+			int codePosition = dataPosition + this.buffer.getInt(offsetPosition + dictCount * 4);
+			if (this.dictionaries[column] == null) {
+				String[] dictionary = new String[dictCount];
+				for (int i = 0; i < dictCount; i++) {
+					int start = this.buffer.getInt(offsetPosition + i * 4);
+					int end = this.buffer.getInt(offsetPosition + (i + 1) * 4);
+					dictionary[i] = decode(this.buffer, dataPosition + start, end - start);
+				}
+				this.dictionaries[column] = dictionary;
+			}
+			int codeWidth = this.buffer.get(codePosition);
+			codePosition += 1;
+			int code;
+			if (codeWidth == 1) {
+				code = this.buffer.get(codePosition + row) & 0xff;
+			} else if (codeWidth == 2) {
+				code = this.buffer.getShort(codePosition + row * 2) & 0xffff;
+			} else {
+				code = this.buffer.getInt(codePosition + row * 4);
+			}
+			return this.dictionaries[column][code];
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param channel キャッシュファイルのチャネル
+	 */
+	private CsvColumnarCache(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * キャッシュファイルパスを取得する。<br>
+	 * @param csvPath CSVファイルパス
+	 * @return キャッシュファイルパス
+	 */
+	public static String getCachePath(String csvPath) {
+		return csvPath + CACHE_EXTENSION;
+	}
+
+	/**
+	 * キャッシュファイル作成処理<br>
+	 * <br>
+	 * CSVファイルを{@link CsvFileUtility#readFileLineToArray()}で読み込み、キャッシュファイルを作成する。<br>
+	 * 作成中は作成ごとに別の一時ファイルに出力し、完了後にキャッシュファイルへ置き換える。エラーの場合は一時ファイルを削除する。<br>
+	 * 同じファイルのキャッシュを複数のスレッド・プロセスから同時に作成した場合は、最後に完了したものが残る。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>CsvColumnarCache.create(filePath, "windows-31j");</code>
+	 * </pre>
+	 * @param csvPath CSVファイルパス
+	 * @param charsetName　サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @exception IOException 入出力エラー
+	 */
+	public static void create(String csvPath, String charsetName) throws IOException {
+		Path source = Paths.get(csvPath);
+		// 読み込み中に更新された場合に古い内容で有効と判定しないよう、読み込み前の値を記録する
+		long sourceSize = Files.size(source);
+		long sourceMtime = Files.getLastModifiedTime(source).toMillis();
+
+		byte[] charsetNameBytes = getCanonicalCharsetName(charsetName).getBytes(StandardCharsets.UTF_8);
+
+		Path cachePath = Paths.get(getCachePath(csvPath)).toAbsolutePath();
+		// 同じファイルのキャッシュを同時に作成しても互いに上書きしないよう、作成ごとに別の一時ファイルを使用する
+		Path tmpPath = Files.createTempFile(cachePath.getParent(), cachePath.getFileName().toString() + ".", ".tmp");
+
+		CsvFileUtility csv = null;
+		if (charsetName == null || "".equals(charsetName)) {
+			csv = new CsvFileUtility(csvPath);
+		} else {
+			csv = new CsvFileUtility(csvPath, charsetName);
+		}
+		try (FileChannel out = FileChannel.open(tmpPath, StandardOpenOption.WRITE)) {
+			// ヘッダは最後に書き込む
+			out.position(HEADER_LENGTH + charsetNameBytes.length);
+
+			ArrayList<Long> blockOffsetList = new ArrayList<Long>();
+			ArrayList<Integer> blockLengthList = new ArrayList<Integer>();
+			ArrayList<ArrayList<String>> rows = new ArrayList<ArrayList<String>>();
+			int totalRows = 0;
+			int maxColumns = 0;
+			ArrayList<String> record = null;
+			while (true) {
+				// 読み込みエラーで途中までのキャッシュを作成しないよう、例外を返却する読み込み処理を使用する
+				record = csv.readRecord();
+				if (record != null) {
+					rows.add(record);
+					maxColumns = Math.max(maxColumns, record.size());
+				}
+				if (rows.size() == BLOCK_ROWS || (record == null && !rows.isEmpty())) {
+					blockOffsetList.add(out.position());
+					int length = writeFully(out, encodeBlock(rows));
+					blockLengthList.add(length);
+					totalRows += rows.size();
+					rows.clear();
+				}
+				if (record == null) {
+					break;
+				}
+			}
+
+			long directoryOffset = out.position();
+			ByteBuffer directory = ByteBuffer.allocate(blockOffsetList.size() * 12);
+			for (int i = 0; i < blockOffsetList.size(); i++) {
+				directory.putLong(blockOffsetList.get(i));
+				directory.putInt(blockLengthList.get(i));
+			}
+			directory.flip();
+			writeFully(out, directory);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH + charsetNameBytes.length);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(CsvFileUtility.PARSER_VERSION);
+			header.putLong(sourceSize);
+			header.putLong(sourceMtime);
+			header.putInt(totalRows);
+			header.putInt(maxColumns);
+			header.putInt(blockOffsetList.size());
+			header.putLong(directoryOffset);
+			header.putInt(charsetNameBytes.length);
+			header.put(charsetNameBytes);
+			header.flip();
+			out.position(0);
+			writeFully(out, header);
+		} catch (Throwable e) {
+			// 作成途中の一時ファイルを残さない
+			Files.deleteIfExists(tmpPath);
+			throw e;
+		} finally {
+			csv.readClose();
+		}
+
+		try {
+			Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			// 置き換えに失敗した場合も一時ファイルを残さない
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	/**
+	 * キャッシュファイルを開く。<br>
+	 * <br>
+	 * windows-31jで作成したキャッシュのみ使用する。
+	 * @param csvPath CSVファイルパス
+	 * @return キャッシュ（利用できない場合はnull）
+	 * @see #open(String, String)
+	 */
+	public static CsvColumnarCache open(String csvPath) {
+		return open(csvPath, null);
+	}
+
+	/**
+	 * キャッシュファイルを開く。<br>
+	 * <br>
+	 * キャッシュファイルが存在しない、元ファイルのサイズ・更新日時が一致しない、
+	 * 作成時の文字コード・解析処理のバージョンが一致しない、形式が不正な場合はnullを返却する。
+	 * @param csvPath CSVファイルパス
+	 * @param charsetName　サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @return キャッシュ（利用できない場合はnull）
+	 */
+	public static CsvColumnarCache open(String csvPath, String charsetName) {
+		File csvFile = new File(csvPath);
+		File cacheFile = new File(getCachePath(csvPath));
+		if (!csvFile.isFile() || !cacheFile.isFile()) {
+			return null;
+		}
+
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ);
+			if (channel.size() < HEADER_LENGTH) {
+				channel.close();
+				return null;
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION
+					|| header.getInt() != CsvFileUtility.PARSER_VERSION
+					|| header.getLong() != csvFile.length()
+					|| header.getLong() != Files.getLastModifiedTime(csvFile.toPath()).toMillis()) {
+				channel.close();
+				return null;
+			}
+			CsvColumnarCache cache = new CsvColumnarCache(channel);
+			cache.rowCount = header.getInt();
+			cache.columnCount = header.getInt();
+			int blockCount = header.getInt();
+			long directoryOffset = header.getLong();
+
+			// キャッシュは作成時の文字コードで変換済みのため、読み込む文字コードが異なる場合は使用しない
+			int charsetNameLength = header.getInt();
+			if (charsetNameLength < 0 || charsetNameLength > MAX_CHARSET_NAME_LENGTH) {
+				channel.close();
+				return null;
+			}
+			ByteBuffer charsetNameBuffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, charsetNameLength);
+			if (!decode(charsetNameBuffer, 0, charsetNameLength).equals(getCanonicalCharsetName(charsetName))) {
+				channel.close();
+				return null;
+			}
+
+			ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, blockCount * 12L);
+			cache.blockOffsets = new long[blockCount];
+			cache.blockLengths = new int[blockCount];
+			for (int i = 0; i < blockCount; i++) {
+				cache.blockOffsets[i] = directory.getLong();
+				cache.blockLengths[i] = directory.getInt();
+			}
+			return cache;
+		} catch (IOException e) {
+			// キャッシュが利用できない場合はCSVから読み込む
+			closeQuietly(channel);
+			return null;
+		} catch (RuntimeException e) {
+			// 形式不正（途中で切れたファイル等）
+			closeQuietly(channel);
+			return null;
+		}
+	}
+
+	/**
+	 * キャッシュファイルが有効か判定する。<br>
+	 * <br>
+	 * windows-31jで作成したキャッシュのみ有効とする。
+	 * @param csvPath CSVファイルパス
+	 * @return true:有効／false:存在しない、または元ファイルが更新されている
+	 */
+	public static boolean isValid(String csvPath) {
+		return isValid(csvPath, null);
+	}
+
+	/**
+	 * キャッシュファイルが有効か判定する。<br>
+	 * @param csvPath CSVファイルパス
+	 * @param charsetName　サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @return true:有効／false:存在しない、元ファイルが更新されている、または作成時の文字コードが異なる
+	 */
+	public static boolean isValid(String csvPath, String charsetName) {
+		CsvColumnarCache cache = open(csvPath, charsetName);
+		if (cache == null) {
+			return false;
+		}
+		cache.close();
+		return true;
+	}
+
+	/**
+	 * データ読み取り処理<br>
+	 * <br>
+	 * {@link CsvFileUtility#readFileLineToArray()}と同じ内容を先頭から順に返却する。
+	 * @return 一行分のデータ（終端の場合はnull）
+	 * @exception IOException キャッシュファイルの読み込みエラー
+	 */
+	public ArrayList<String> readRecord() throws IOException {
+		return this.readRecord(null);
+	}
+
+	/**
+	 * データ読み取り処理。列指定<br>
+	 * <br>
+	 * 指定列が存在しない行の場合は空文字を設定する。
+	 * @param columnIndexes 取得する列番号（nullの場合は全列）
+	 * @return 一行分のデータ（終端の場合はnull）
+	 * @exception IOException キャッシュファイルの読み込みエラー
+	 */
+	public ArrayList<String> readRecord(int[] columnIndexes) throws IOException {
+		if (this.currentBlock == null || this.currentRow >= this.currentBlock.rows) {
+			if (this.currentBlockIndex + 1 >= this.blockOffsets.length) {
+				return null;
+			}
+			this.currentBlock = this.mapBlock(this.currentBlockIndex + 1);
+			this.currentBlockIndex++;
+			this.currentRow = 0;
+		}
+		ArrayList<String> record = this.toRecord(this.currentBlock, this.currentRow, columnIndexes);
+		this.currentRow++;
+		return record;
+	}
+
+	/**
+	 * 範囲検索処理<br>
+	 * <br>
+	 * 指定列の値が範囲内（文字列比較）の行を返却する。最小値・最大値が範囲外のブロックは読み飛ばす。<br>
+	 * 順次読み込み（{@link #readRecord()}）の位置には影響しない。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>ArrayList&lt;ArrayList&lt;String&gt;&gt; list = cache.select(0, "1000", "1999", new int[] { 0, 3 });</code>
+	 * </pre>
+	 * @param column 検索する列番号
+	 * @param fromValue 範囲の下限（nullの場合は下限なし）
+	 * @param toValue 範囲の上限（nullの場合は上限なし）
+	 * @param columnIndexes 取得する列番号（nullの場合は全列）
+	 * @return 該当行のデータ
+	 * @exception IOException キャッシュファイルの読み込みエラー
+	 */
+	public ArrayList<ArrayList<String>> select(int column, String fromValue, String toValue, int[] columnIndexes)
+			throws IOException {
+		ArrayList<ArrayList<String>> resultList = new ArrayList<ArrayList<String>>();
+		if (column < 0 || column >= this.columnCount) {
+			return resultList;
+		}
+		for (int b = 0; b < this.blockOffsets.length; b++) {
+			Block block = this.mapBlock(b);
+			if (column >= block.columns) {
+				continue;
+			}
+			String min = block.minValue(column);
+			String max = block.maxValue(column);
+			// 値なし、または範囲外のブロックは読み飛ばす
+			if (min == null || (toValue != null && min.compareTo(toValue) > 0)
+					|| (fromValue != null && max.compareTo(fromValue) < 0)) {
+				continue;
+			}
+			for (int row = 0; row < block.rows; row++) {
+				if (column >= block.width(row)) {
+					continue;
+				}
+				String value = block.value(column, row);
+				if ((fromValue == null || value.compareTo(fromValue) >= 0)
+						&& (toValue == null || value.compareTo(toValue) <= 0)) {
+					resultList.add(this.toRecord(block, row, columnIndexes));
+				}
+			}
+		}
+		return resultList;
+	}
+
+	/**
+	 * 総行数を取得する。<br>
+	 * @return rowCount
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * 列数（全行の最大列数）を取得する。<br>
+	 * @return columnCount
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * キャッシュファイル読み込み終了処理
+	 */
+	public void close() {
+		closeQuietly(this.channel);
+		this.currentBlock = null;
+	}
+
+	/**
+	 * 行データ生成処理<br>
+	 * @param block ブロック
+	 * @param row ブロック内の行番号
+	 * @param columnIndexes 取得する列番号（nullの場合は全列）
+	 * @return 一行分のデータ
+	 */
+	private ArrayList<String> toRecord(Block block, int row, int[] columnIndexes) {
+		int width = block.width(row);
+		ArrayList<String> record;
+		if (columnIndexes == null) {
+			record = new ArrayList<String>(width);
+			for (int c = 0; c < width; c++) {
+				record.add(block.value(c, row));
+			}
+		} else {
+			record = new ArrayList<String>(columnIndexes.length);
+			for (int c : columnIndexes) {
+				record.add(c >= 0 && c < width ? block.value(c, row) : "");
+			}
+		}
+		return record;
+	}
+
+	/**
+	 * ブロックのメモリマップ<br>
+	 * @param blockIndex ブロック番号
+	 * @return ブロック
+	 */
+	private Block mapBlock(int blockIndex) throws IOException {
+		if (blockIndex == this.currentBlockIndex && this.currentBlock != null) {
+			return this.currentBlock;
+		}
+		return new Block(this.channel.map(FileChannel.MapMode.READ_ONLY, this.blockOffsets[blockIndex],
+				this.blockLengths[blockIndex]));
+	}
+
+	/**
+	 * ブロックの符号化<br>
+	 * <br>
+	 * 列チャンクはブロック内の最大列数分出力する。
+	 * @param rows ブロックの行データ
+	 * @return 符号化したブロック
+	 */
+	private static ByteBuffer encodeBlock(ArrayList<ArrayList<String>> rows) throws IOException {
+		int rowCount = rows.size();
+		int uniformWidth = rows.get(0).size();
+		int maxWidth = 0;
+		for (ArrayList<String> row : rows) {
+			if (row.size() != uniformWidth) {
+				uniformWidth = -1;
+			}
+			maxWidth = Math.max(maxWidth, row.size());
+		}
+		int columnCount = maxWidth;
+
+		byte[][] chunks = new byte[columnCount][];
+		for (int c = 0; c < columnCount; c++) {
+			chunks[c] = encodeColumn(rows, c);
+		}
+
+		int position = 12 + (uniformWidth < 0 ? rowCount * 4 : 0) + columnCount * 4;
+		int length = position;
+		for (byte[] chunk : chunks) {
+			length += chunk.length;
+		}
+		ByteBuffer block = ByteBuffer.allocate(length);
+		block.putInt(rowCount);
+		block.putInt(uniformWidth);
+		if (uniformWidth < 0) {
+			for (ArrayList<String> row : rows) {
+				block.putInt(row.size());
+			}
+		}
+		block.putInt(columnCount);
+		for (byte[] chunk : chunks) {
+			block.putInt(position);
+			position += chunk.length;
+		}
+		for (byte[] chunk : chunks) {
+			block.put(chunk);
+		}
+		block.flip();
+		return block;
+	}
+
+	/**
+	 * 列チャンクの符号化<br>
+	 * <br>
+	 * 異なり値の数が行数の半分以下の場合は辞書符号化、それ以外はプレーン符号化とする。
+	 * @param rows ブロックの行データ
+	 * @param column 列番号
+	 * @return 符号化した列チャンク
+	 */
+	private static byte[] encodeColumn(ArrayList<ArrayList<String>> rows, int column) throws IOException {
+		int rowCount = rows.size();
+		String[] values = new String[rowCount];
+		String min = null;
+		String max = null;
+		HashMap<String, Integer> dictionaryMap = new HashMap<String, Integer>();
+		ArrayList<String> dictionary = new ArrayList<String>();
+		boolean dictionaryFlg = true;
+		for (int i = 0; i < rowCount; i++) {
+			ArrayList<String> row = rows.get(i);
+			if (column < row.size()) {
+				String value = row.get(column) == null ? "" : row.get(column);
+				values[i] = value;
+				if (min == null || value.compareTo(min) < 0) {
+					min = value;
+				}
+				if (max == null || value.compareTo(max) > 0) {
+					max = value;
+				}
+			} else {
+				// 列が存在しない行
+				values[i] = "";
+			}
+			if (dictionaryFlg && !dictionaryMap.containsKey(values[i])) {
+				dictionaryMap.put(values[i], dictionary.size());
+				dictionary.add(values[i]);
+				if (dictionary.size() > rowCount / 2) {
+					dictionaryFlg = false;
+				}
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(dictionaryFlg ? ENCODING_DICTIONARY : ENCODING_PLAIN);
+		writeString(out, min);
+		writeString(out, max);
+		if (dictionaryFlg) {
+			out.writeInt(dictionary.size());
+			writeValues(out, dictionary.toArray(new String[dictionary.size()]));
+			int codeWidth = dictionary.size() <= 0x100 ? 1 : (dictionary.size() <= 0x10000 ? 2 : 4);
+			out.writeByte(codeWidth);
+			for (String value : values) {
+				int code = dictionaryMap.get(value).intValue();
+				if (codeWidth == 1) {
+					out.writeByte(code);
+				} else if (codeWidth == 2) {
+					out.writeShort(code);
+				} else {
+					out.writeInt(code);
+				}
+			}
+		} else {
+			writeValues(out, values);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * 値の出力（オフセット配列＋データ）<br>
+	 * @param out 出力先
+	 * @param values 値
+	 */
+	private static void writeValues(DataOutputStream out, String[] values) throws IOException {
+		byte[][] encoded = new byte[values.length][];
+		int offset = 0;
+		out.writeInt(offset);
+		for (int i = 0; i < values.length; i++) {
+			encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+			offset += encoded[i].length;
+			out.writeInt(offset);
+		}
+		for (byte[] value : encoded) {
+			out.write(value);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static int stringLength(ByteBuffer buffer, int position) {
+		return 4 + Math.max(0, buffer.getInt(position));
+	}
+
+	private static String readString(ByteBuffer buffer, int position) {
+		int length = buffer.getInt(position);
+		if (length < 0) {
+			return null;
+		}
+		return decode(buffer, position + 4, length);
+	}
+
+	private static String decode(ByteBuffer buffer, int position, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(position);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		return length;
+	}
+
+	/**
+	 * ヘッダに記録する文字コード名を取得する。<br>
+	 * <br>
+	 * 別名で指定した場合も同じ文字コードと判定できるよう、正式名に変換する。
+	 * @param charsetName　サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @return 文字コードの正式名
+	 */
+	private static String getCanonicalCharsetName(String charsetName) {
+		if (charsetName == null || "".equals(charsetName) || Windows31jCharset.isWindows31j(charsetName)) {
+			return "windows-31j";
+		}
+		try {
+			return Charset.forName(charsetName).name();
+		} catch (IllegalArgumentException e) {
+			// 未対応の文字コードは指定された名前のまま比較する
+			return charsetName;
+		}
+	}
+
+	private static void closeQuietly(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// 入出力処理に失敗しました。
+				e.printStackTrace();
+			}
+		}
+	}
+}
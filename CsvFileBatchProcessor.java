@@ -0,0 +1,299 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	CsvFileBatchProcessor.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		文字コードの事前チェック対応
+ *
+ */
+package utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/*
+ * CSVファイル一括処理クラス。<br>
+ * <br>
+ * ディレクトリ配下の複数CSVファイルを並行して読み込み、１レコードごとにハンドラを呼び出す。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>ディレクトリ・globパターン指定による対象ファイルの取得</li>
+ * <li>仮想スレッド（利用可能な場合）によるファイル単位の並行処理</li>
+ * <li>同時オープンファイル数の制限</li>
+ * <li>ファイルごとの処理結果・エラーの返却（対象ファイル順）</li>
+ * </ul>
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class CsvFileBatchProcessor {
+
+	/*
+	 * 同時オープンファイル数（デフォルト）
+	 */
+	private static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+	/*
+	 * 同時オープンファイル数
+	 */
+	private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+	/*
+	 * サポートするcharsetの名前
+	 */
+	private String charsetName = "";
+
+	/**
+	 * レコード処理ハンドラ<br>
+	 * <br>
+	 * 複数ファイルから並行して呼び出されるため、ハンドラ内で共有する状態はスレッドセーフにすること。
+	 */
+	public interface RecordHandler {
+
+		/**
+		 * １レコード分の処理<br>
+		 * <br>
+		 * @param filePath ファイルパス
+		 * @param lineNo レコード番号（1始まり）
+		 * @param record 一行分のデータ
+		 * @exception Exception 処理エラー（対象ファイルの処理を中断し、結果にエラーを設定する）
+		 */
+		void handle(String filePath, int lineNo, ArrayList<String> record) throws Exception;
+	}
+
+	/**
+	 * ファイルごとの処理結果<br>
+	 */
+	public static class BatchResult {
+
+		/*
+		 * ファイルパス
+		 */
+		private final String filePath;
+
+		/*
+		 * 処理レコード数
+		 */
+		private final int recordCount;
+
+		/*
+		 * 発生したエラー（正常終了の場合はnull）
+		 */
+		private final Throwable error;
+
+		BatchResult(String filePath, int recordCount, Throwable error) {
+			this.filePath = filePath;
+			this.recordCount = recordCount;
+			this.error = error;
+		}
+
+		/**
+		 * ファイルパスを取得する。<br>
+		 * @return filePath
+		 */
+		public String getFilePath() {
+			return filePath;
+		}
+
+		/**
+		 * 処理レコード数を取得する。<br>
+		 * エラーの場合はエラー発生までに処理したレコード数。
+		 * @return recordCount
+		 */
+		public int getRecordCount() {
+			return recordCount;
+		}
+
+		/**
+		 * 発生したエラーを取得する。<br>
+		 * @return error 正常終了の場合はnull
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * 正常終了か判定する。<br>
+		 * @return true:正常終了／false:エラー
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <b>文字コードはwindows-31jで読み込む。</b><br>
+	 * <br>
+	 * @param maxOpenFiles 同時オープンファイル数
+	 */
+	public CsvFileBatchProcessor(int maxOpenFiles) {
+		this(maxOpenFiles, "");
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param maxOpenFiles 同時オープンファイル数
+	 * @param charsetName　サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @exception IllegalArgumentException サポートしていないcharset名前の場合
+	 */
+	public CsvFileBatchProcessor(int maxOpenFiles, String charsetName) {
+		if (maxOpenFiles > 0) {
+			this.maxOpenFiles = maxOpenFiles;
+		}
+		// 文字コードの誤りはファイルごとのオープンエラーとせず、ここでエラーとする
+		if (charsetName != null && !"".equals(charsetName)) {
+			Charset.forName(charsetName);
+		}
+		this.charsetName = charsetName;
+	}
+
+	/**
+	 * ディレクトリ配下のファイル一括処理<br>
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>List&lt;BatchResult&gt; resultList = instance.process("C:\\data", "*.csv", handler);</code>
+	 * </pre>
+	 * @param dirPath ディレクトリパス
+	 * @param glob globパターン（nullの場合は全ファイル）
+	 * @param handler レコード処理ハンドラ
+	 * @return ファイルごとの処理結果（ファイルパス順）
+	 * @exception IOException ディレクトリの読み込みに失敗した場合
+	 */
+	public List<BatchResult> process(String dirPath, String glob, RecordHandler handler) throws IOException {
+		ArrayList<String> filePathList = new ArrayList<String>();
+		String pattern = glob;
+		if (pattern == null || "".equals(pattern)) {
+			pattern = "*";
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(dirPath), pattern)) {
+			for (Path path : stream) {
+				if (Files.isRegularFile(path)) {
+					filePathList.add(path.toString());
+				}
+			}
+		}
+		Collections.sort(filePathList);
+		return this.process(filePathList, handler);
+	}
+
+	/**
+	 * ファイル一括処理<br>
+	 * <br>
+	 * @param filePathList ファイルパスリスト
+	 * @param handler レコード処理ハンドラ
+	 * @return ファイルごとの処理結果（ファイルパスリスト順）
+	 */
+	public List<BatchResult> process(List<String> filePathList, final RecordHandler handler) {
+		ArrayList<BatchResult> resultList = new ArrayList<BatchResult>();
+		// 同時オープンファイル数を制限するセマフォ
+		final Semaphore openFiles = new Semaphore(this.maxOpenFiles);
+		ExecutorService executor = createExecutor(this.maxOpenFiles);
+		try {
+			ArrayList<Future<BatchResult>> futureList = new ArrayList<Future<BatchResult>>();
+			for (final String filePath : filePathList) {
+				futureList.add(executor.submit(new Callable<BatchResult>() {
+					@Override
+					public BatchResult call() throws Exception {
+						openFiles.acquire();
+						try {
+							return processFile(filePath, handler);
+						} finally {
+							openFiles.release();
+						}
+					}
+				}));
+			}
+			for (int i = 0; i < futureList.size(); i++) {
+				try {
+					resultList.add(futureList.get(i).get());
+				} catch (ExecutionException e) {
+					resultList.add(new BatchResult(filePathList.get(i), 0, e.getCause()));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					resultList.add(new BatchResult(filePathList.get(i), 0, e));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return resultList;
+	}
+
+	/**
+	 * １ファイル分の処理<br>
+	 * <br>
+	 * @param filePath ファイルパス
+	 * @param handler レコード処理ハンドラ
+	 * @return 処理結果
+	 */
+	private BatchResult processFile(String filePath, RecordHandler handler) {
+		// CsvFileUtilityはオープン失敗を例外で返さないため、事前に確認する
+		File file = new File(filePath);
+		if (!file.isFile() || !file.canRead()) {
+			return new BatchResult(filePath, 0, new IOException("読み込みできないファイルです。:" + filePath));
+		}
+
+		CsvFileUtility csv = null;
+		int recordCount = 0;
+		try {
+			if (this.charsetName == null || "".equals(this.charsetName)) {
+				csv = new CsvFileUtility(filePath);
+			} else {
+				csv = new CsvFileUtility(filePath, this.charsetName);
+			}
+			// 読み込みエラーを結果に設定するため、例外を返却する読み込み処理を使用する
+			ArrayList<String> record = null;
+			while ((record = csv.readRecord()) != null) {
+				recordCount++;
+				handler.handle(filePath, recordCount, record);
+			}
+		} catch (Exception e) {
+			return new BatchResult(filePath, recordCount, e);
+		} finally {
+			if (csv != null) {
+				csv.readClose();
+			}
+		}
+		return new BatchResult(filePath, recordCount, null);
+	}
+
+	/**
+	 * スレッドプールの生成<br>
+	 * <br>
+	 * 仮想スレッドが利用可能なJDKの場合はタスクごとの仮想スレッドを使用し、
+	 * それ以外の場合は同時オープンファイル数分の固定スレッドプールを使用する。
+	 * @param poolSize 固定スレッドプールのスレッド数
+	 * @return スレッドプール
+	 */
+	private static ExecutorService createExecutor(int poolSize) {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			// 仮想スレッド未対応のJDK
+			return Executors.newFixedThreadPool(poolSize);
+		}
+	}
+}
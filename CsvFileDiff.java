@@ -0,0 +1,683 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	CsvFileDiff.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		読み込みエラーの通知対応
+ *
+ */
+package utility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * CSVファイル差分比較クラス。<br>
+ * <br>
+ * ２つのCSVファイル（旧・新）をキー項目で突き合わせ、追加・削除・変更された行を通知する。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>キー項目の指定（複数項目可）</li>
+ * <li>比較対象外項目の指定</li>
+ * <li>キー順にソート済みのファイルのマージ比較（{@link #diffSorted(String, String, DiffHandler)}）</li>
+ * <li>未ソートのファイルのハッシュ分割比較（{@link #diff(String, String, DiffHandler)}）。
+ * 一時ファイルに分割し、分割ごとに並列で比較する</li>
+ * </ul>
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class CsvFileDiff {
+
+	/*
+	 * 分割数（デフォルト）
+	 */
+	private static final int DEFAULT_PARTITION_COUNT = 64;
+
+	/*
+	 * 一時ファイルの出力バッファサイズ
+	 */
+	private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+
+	/*
+	 * キー項目の列番号
+	 */
+	private final int[] keyColumns;
+
+	/*
+	 * 比較対象外項目のフラグ（列番号ごと）
+	 */
+	private final boolean[] ignoreFlags;
+
+	/*
+	 * サポートするcharsetの名前
+	 */
+	private String charsetName = "";
+
+	/*
+	 * 分割数
+	 */
+	private int partitionCount = DEFAULT_PARTITION_COUNT;
+
+	/*
+	 * 並列数
+	 */
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+	/*
+	 * 一時ファイル出力ディレクトリ（nullの場合はシステムの一時ディレクトリ）
+	 */
+	private String tempDirPath = null;
+
+	/*
+	 * 追加行数
+	 */
+	private final AtomicLong addedCount = new AtomicLong();
+
+	/*
+	 * 削除行数
+	 */
+	private final AtomicLong removedCount = new AtomicLong();
+
+	/*
+	 * 変更行数
+	 */
+	private final AtomicLong changedCount = new AtomicLong();
+
+	/**
+	 * 差分種別
+	 */
+	public enum DiffType {
+		/** 追加（新ファイルのみに存在） */
+		ADDED,
+		/** 削除（旧ファイルのみに存在） */
+		REMOVED,
+		/** 変更（キーが一致し、内容が異なる） */
+		CHANGED
+	}
+
+	/**
+	 * 差分行<br>
+	 */
+	public static class DiffRecord {
+
+		private final DiffType type;
+		private final ArrayList<String> key;
+		private final ArrayList<String> oldRecord;
+		private final ArrayList<String> newRecord;
+		private final int[] changedColumns;
+
+		DiffRecord(DiffType type, ArrayList<String> key, ArrayList<String> oldRecord, ArrayList<String> newRecord,
+				int[] changedColumns) {
+			this.type = type;
+			this.key = key;
+			this.oldRecord = oldRecord;
+			this.newRecord = newRecord;
+			this.changedColumns = changedColumns;
+		}
+
+		/**
+		 * 差分種別を取得する。<br>
+		 * @return type
+		 */
+		public DiffType getType() {
+			return type;
+		}
+
+		/**
+		 * キー項目の値を取得する。<br>
+		 * @return key
+		 */
+		public ArrayList<String> getKey() {
+			return key;
+		}
+
+		/**
+		 * 旧ファイルの行を取得する。<br>
+		 * @return oldRecord 追加の場合はnull
+		 */
+		public ArrayList<String> getOldRecord() {
+			return oldRecord;
+		}
+
+		/**
+		 * 新ファイルの行を取得する。<br>
+		 * @return newRecord 削除の場合はnull
+		 */
+		public ArrayList<String> getNewRecord() {
+			return newRecord;
+		}
+
+		/**
+		 * 変更された列番号を取得する。<br>
+		 * @return changedColumns 変更以外の場合は空配列
+		 */
+		public int[] getChangedColumns() {
+			return changedColumns;
+		}
+	}
+
+	/**
+	 * 差分通知ハンドラ<br>
+	 * <br>
+	 * 並列比較時も同時には呼び出されない（通知順は分割ごとの順となる）。
+	 */
+	public interface DiffHandler {
+
+		/**
+		 * 差分行の通知<br>
+		 * @param record 差分行
+		 * @exception Exception 処理エラー（比較を中断する）
+		 */
+		void handle(DiffRecord record) throws Exception;
+	}
+
+	/*
+	 * 比較用の行（比較対象項目のハッシュ値付き）
+	 */
+	private static class HashedRecord {
+		private final ArrayList<String> record;
+		private final long hash;
+
+		HashedRecord(ArrayList<String> record, long hash) {
+			this.record = record;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param keyColumns キー項目の列番号
+	 * @param ignoreColumns 比較対象外項目の列番号（nullの場合はなし）
+	 */
+	public CsvFileDiff(int[] keyColumns, int[] ignoreColumns) {
+		this.keyColumns = keyColumns.clone();
+		int maxIgnore = -1;
+		if (ignoreColumns != null) {
+			for (int c : ignoreColumns) {
+				maxIgnore = Math.max(maxIgnore, c);
+			}
+		}
+		this.ignoreFlags = new boolean[maxIgnore + 1];
+		if (ignoreColumns != null) {
+			for (int c : ignoreColumns) {
+				if (c >= 0) {
+					this.ignoreFlags[c] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * サポートするcharset名前を設定する。<br>
+	 * @param charsetName サポートするcharset名前（空文字の場合はwindows-31j）
+	 */
+	public void setCharsetName(String charsetName) {
+		this.charsetName = charsetName;
+	}
+
+	/**
+	 * ハッシュ分割比較の分割数を設定する。<br>
+	 * @param partitionCount 分割数
+	 */
+	public void setPartitionCount(int partitionCount) {
+		this.partitionCount = Math.max(1, partitionCount);
+	}
+
+	/**
+	 * ハッシュ分割比較の並列数を設定する。<br>
+	 * @param threadCount 並列数
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	/**
+	 * 一時ファイル出力ディレクトリを設定する。<br>
+	 * @param tempDirPath 一時ファイル出力ディレクトリ（nullの場合はシステムの一時ディレクトリ）
+	 */
+	public void setTempDirPath(String tempDirPath) {
+		this.tempDirPath = tempDirPath;
+	}
+
+	/**
+	 * 直前の比較の追加行数を取得する。<br>
+	 * @return 追加行数
+	 */
+	public long getAddedCount() {
+		return addedCount.get();
+	}
+
+	/**
+	 * 直前の比較の削除行数を取得する。<br>
+	 * @return 削除行数
+	 */
+	public long getRemovedCount() {
+		return removedCount.get();
+	}
+
+	/**
+	 * 直前の比較の変更行数を取得する。<br>
+	 * @return 変更行数
+	 */
+	public long getChangedCount() {
+		return changedCount.get();
+	}
+
+	/**
+	 * ソート済みファイルの差分比較処理<br>
+	 * <br>
+	 * 両ファイルがキー項目の昇順（文字列比較）にソートされていること。
+	 * ソート順が崩れている行を検出した場合はエラーとする。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.diffSorted(oldPath, newPath, handler);</code>
+	 * </pre>
+	 * @param oldPath 旧ファイルパス
+	 * @param newPath 新ファイルパス
+	 * @param handler 差分通知ハンドラ
+	 * @exception IOException 入出力エラー、ソート順不正、またはハンドラのエラー
+	 */
+	public void diffSorted(String oldPath, String newPath, DiffHandler handler) throws IOException {
+		this.resetCount();
+		CsvFileUtility oldCsv = this.openReader(oldPath);
+		CsvFileUtility newCsv = null;
+		try {
+			newCsv = this.openReader(newPath);
+			ArrayList<String> oldRecord = oldCsv.readRecord();
+			ArrayList<String> newRecord = newCsv.readRecord();
+			ArrayList<String> oldKey = oldRecord == null ? null : this.key(oldRecord);
+			ArrayList<String> newKey = newRecord == null ? null : this.key(newRecord);
+			while (oldRecord != null || newRecord != null) {
+				int cmp;
+				if (oldRecord == null) {
+					cmp = 1;
+				} else if (newRecord == null) {
+					cmp = -1;
+				} else {
+					cmp = compareKey(oldKey, newKey);
+				}
+
+				if (cmp < 0) {
+					this.report(handler, DiffType.REMOVED, oldKey, oldRecord, null, new int[0]);
+				} else if (cmp > 0) {
+					this.report(handler, DiffType.ADDED, newKey, null, newRecord, new int[0]);
+				} else {
+					int[] changedColumns = this.changedColumns(oldRecord, newRecord);
+					if (changedColumns.length > 0) {
+						this.report(handler, DiffType.CHANGED, newKey, oldRecord, newRecord, changedColumns);
+					}
+				}
+
+				if (cmp <= 0) {
+					oldRecord = oldCsv.readRecord();
+					ArrayList<String> nextKey = oldRecord == null ? null : this.key(oldRecord);
+					checkOrder(oldPath, oldKey, nextKey);
+					oldKey = nextKey;
+				}
+				if (cmp >= 0) {
+					newRecord = newCsv.readRecord();
+					ArrayList<String> nextKey = newRecord == null ? null : this.key(newRecord);
+					checkOrder(newPath, newKey, nextKey);
+					newKey = nextKey;
+				}
+			}
+		} finally {
+			oldCsv.readClose();
+			if (newCsv != null) {
+				newCsv.readClose();
+			}
+		}
+	}
+
+	/**
+	 * 未ソートファイルの差分比較処理<br>
+	 * <br>
+	 * 両ファイルをキー項目のハッシュ値で一時ファイルに分割し、分割ごとに並列で比較する。
+	 * 同時にメモリに保持するのは、比較中の分割の旧ファイル分のみとなる。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.diff(oldPath, newPath, handler);</code>
+	 * </pre>
+	 * @param oldPath 旧ファイルパス
+	 * @param newPath 新ファイルパス
+	 * @param handler 差分通知ハンドラ
+	 * @exception IOException 入出力エラー、またはハンドラのエラー
+	 */
+	public void diff(String oldPath, String newPath, final DiffHandler handler) throws IOException {
+		this.resetCount();
+		Path tempDir = this.tempDirPath == null ? Files.createTempDirectory("csvdiff")
+				: Files.createTempDirectory(new File(this.tempDirPath).toPath(), "csvdiff");
+		final File[] oldParts = new File[this.partitionCount];
+		final File[] newParts = new File[this.partitionCount];
+		ExecutorService executor = null;
+		try {
+			for (int p = 0; p < this.partitionCount; p++) {
+				oldParts[p] = new File(tempDir.toFile(), "old_" + p + ".part");
+				newParts[p] = new File(tempDir.toFile(), "new_" + p + ".part");
+			}
+			this.spill(oldPath, oldParts);
+			this.spill(newPath, newParts);
+
+			executor = Executors.newFixedThreadPool(Math.min(this.threadCount, this.partitionCount));
+			ArrayList<Future<Void>> futureList = new ArrayList<Future<Void>>();
+			for (int p = 0; p < this.partitionCount; p++) {
+				final int partition = p;
+				futureList.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						diffPartition(oldParts[partition], newParts[partition], handler);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futureList) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IOException("差分比較に失敗しました。", e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("差分比較が中断されました。", e);
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			for (int p = 0; p < this.partitionCount; p++) {
+				if (oldParts[p] != null) {
+					oldParts[p].delete();
+				}
+				if (newParts[p] != null) {
+					newParts[p].delete();
+				}
+			}
+			Files.deleteIfExists(tempDir);
+		}
+	}
+
+	/**
+	 * １分割分の比較処理<br>
+	 * <br>
+	 * 旧ファイル分をキーごとに保持し、新ファイル分を順に突き合わせる。
+	 * @param oldPart 旧ファイルの分割
+	 * @param newPart 新ファイルの分割
+	 * @param handler 差分通知ハンドラ
+	 */
+	private void diffPartition(File oldPart, File newPart, DiffHandler handler) throws IOException {
+		HashMap<ArrayList<String>, ArrayDeque<HashedRecord>> oldMap = new HashMap<ArrayList<String>, ArrayDeque<HashedRecord>>();
+		try (DataInputStream in = openSpill(oldPart)) {
+			ArrayList<String> record;
+			while ((record = readSpill(in)) != null) {
+				ArrayList<String> key = this.key(record);
+				ArrayDeque<HashedRecord> sameKey = oldMap.get(key);
+				if (sameKey == null) {
+					sameKey = new ArrayDeque<HashedRecord>(1);
+					oldMap.put(key, sameKey);
+				}
+				sameKey.add(new HashedRecord(record, this.contentHash(record)));
+			}
+		}
+
+		try (DataInputStream in = openSpill(newPart)) {
+			ArrayList<String> record;
+			while ((record = readSpill(in)) != null) {
+				ArrayList<String> key = this.key(record);
+				ArrayDeque<HashedRecord> sameKey = oldMap.get(key);
+				HashedRecord oldRecord = sameKey == null ? null : sameKey.poll();
+				if (sameKey != null && sameKey.isEmpty()) {
+					oldMap.remove(key);
+				}
+				if (oldRecord == null) {
+					this.report(handler, DiffType.ADDED, key, null, record, new int[0]);
+				} else if (oldRecord.hash != this.contentHash(record)) {
+					int[] changedColumns = this.changedColumns(oldRecord.record, record);
+					if (changedColumns.length > 0) {
+						this.report(handler, DiffType.CHANGED, key, oldRecord.record, record, changedColumns);
+					}
+				}
+			}
+		}
+
+		for (Map.Entry<ArrayList<String>, ArrayDeque<HashedRecord>> entry : oldMap.entrySet()) {
+			for (HashedRecord oldRecord : entry.getValue()) {
+				this.report(handler, DiffType.REMOVED, entry.getKey(), oldRecord.record, null, new int[0]);
+			}
+		}
+	}
+
+	/**
+	 * 一時ファイルへの分割処理<br>
+	 * @param filePath ファイルパス
+	 * @param parts 分割ファイル
+	 */
+	private void spill(String filePath, File[] parts) throws IOException {
+		DataOutputStream[] outs = new DataOutputStream[parts.length];
+		CsvFileUtility csv = this.openReader(filePath);
+		try {
+			for (int p = 0; p < parts.length; p++) {
+				outs[p] = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(parts[p]), SPILL_BUFFER_SIZE));
+			}
+			ArrayList<String> record;
+			while ((record = csv.readRecord()) != null) {
+				int partition = (this.key(record).hashCode() & Integer.MAX_VALUE) % parts.length;
+				writeSpill(outs[partition], record);
+			}
+		} finally {
+			csv.readClose();
+			for (DataOutputStream out : outs) {
+				if (out != null) {
+					out.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 読み込み用CsvFileUtilityの生成<br>
+	 * <br>
+	 * CsvFileUtilityはオープン失敗を例外で返さないため、事前に確認する。<br>
+	 * 読み込みエラーで以降のレコードが差分（追加・削除）として通知されないよう、
+	 * 読み込みには例外を返却する{@link CsvFileUtility#readRecord()}を使用すること。
+	 * @param filePath ファイルパス
+	 * @return CsvFileUtility
+	 */
+	private CsvFileUtility openReader(String filePath) throws IOException {
+		File file = new File(filePath);
+		if (!file.isFile() || !file.canRead()) {
+			throw new IOException("読み込みできないファイルです。:" + filePath);
+		}
+		if (this.charsetName == null || "".equals(this.charsetName)) {
+			return new CsvFileUtility(filePath);
+		}
+		return new CsvFileUtility(filePath, this.charsetName);
+	}
+
+	/**
+	 * 差分行の通知<br>
+	 */
+	private void report(DiffHandler handler, DiffType type, ArrayList<String> key, ArrayList<String> oldRecord,
+			ArrayList<String> newRecord, int[] changedColumns) throws IOException {
+		if (type == DiffType.ADDED) {
+			this.addedCount.incrementAndGet();
+		} else if (type == DiffType.REMOVED) {
+			this.removedCount.incrementAndGet();
+		} else {
+			this.changedCount.incrementAndGet();
+		}
+		synchronized (handler) {
+			try {
+				handler.handle(new DiffRecord(type, key, oldRecord, newRecord, changedColumns));
+			} catch (IOException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IOException("差分行の処理に失敗しました。", e);
+			}
+		}
+	}
+
+	private void resetCount() {
+		this.addedCount.set(0);
+		this.removedCount.set(0);
+		this.changedCount.set(0);
+	}
+
+	/**
+	 * キー項目の値を取得する（列が存在しない場合は空文字）。<br>
+	 * @param record 一行分のデータ
+	 * @return キー項目の値
+	 */
+	private ArrayList<String> key(ArrayList<String> record) {
+		ArrayList<String> key = new ArrayList<String>(this.keyColumns.length);
+		for (int c : this.keyColumns) {
+			key.add(c >= 0 && c < record.size() ? record.get(c) : "");
+		}
+		return key;
+	}
+
+	/**
+	 * 比較対象項目のハッシュ値（FNV-1a 64bit）を取得する。<br>
+	 * @param record 一行分のデータ
+	 * @return ハッシュ値
+	 */
+	private long contentHash(ArrayList<String> record) {
+		long hash = 0xcbf29ce484222325L;
+		for (int c = 0; c < record.size(); c++) {
+			if (this.isIgnore(c)) {
+				continue;
+			}
+			String value = record.get(c);
+			hash = (hash ^ c) * 0x100000001b3L;
+			if (value != null) {
+				for (int i = 0; i < value.length(); i++) {
+					hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+				}
+			}
+			// 項目の区切り
+			hash = (hash ^ 0xffff) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * 変更された列番号を取得する。<br>
+	 * @param oldRecord 旧ファイルの行
+	 * @param newRecord 新ファイルの行
+	 * @return 変更された列番号（比較対象外項目は除く）
+	 */
+	private int[] changedColumns(ArrayList<String> oldRecord, ArrayList<String> newRecord) {
+		int columns = Math.max(oldRecord.size(), newRecord.size());
+		int[] changed = new int[columns];
+		int count = 0;
+		for (int c = 0; c < columns; c++) {
+			if (this.isIgnore(c)) {
+				continue;
+			}
+			String oldValue = c < oldRecord.size() ? oldRecord.get(c) : null;
+			String newValue = c < newRecord.size() ? newRecord.get(c) : null;
+			if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+				changed[count++] = c;
+			}
+		}
+		return Arrays.copyOf(changed, count);
+	}
+
+	private boolean isIgnore(int column) {
+		return column < this.ignoreFlags.length && this.ignoreFlags[column];
+	}
+
+	private static int compareKey(ArrayList<String> key1, ArrayList<String> key2) {
+		for (int i = 0; i < key1.size(); i++) {
+			int cmp = key1.get(i).compareTo(key2.get(i));
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	private static void checkOrder(String filePath, ArrayList<String> prevKey, ArrayList<String> nextKey)
+			throws IOException {
+		if (prevKey != null && nextKey != null && compareKey(prevKey, nextKey) > 0) {
+			throw new IOException("キー項目の昇順にソートされていません。:" + filePath + " " + nextKey);
+		}
+	}
+
+	private static DataInputStream openSpill(File part) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(part), SPILL_BUFFER_SIZE));
+	}
+
+	/**
+	 * 一時ファイルへの１行の書き込み（項目数、項目ごとに長さ＋UTF-8バイト列）<br>
+	 */
+	private static void writeSpill(DataOutputStream out, ArrayList<String> record) throws IOException {
+		out.writeInt(record.size());
+		for (String value : record) {
+			if (value == null) {
+				out.writeInt(-1);
+				continue;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * 一時ファイルからの１行の読み込み<br>
+	 * @return 一行分のデータ（終端の場合はnull）
+	 */
+	private static ArrayList<String> readSpill(DataInputStream in) throws IOException {
+		int size;
+		try {
+			size = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		ArrayList<String> record = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			int length = in.readInt();
+			if (length < 0) {
+				record.add(null);
+				continue;
+			}
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			record.add(new String(bytes, StandardCharsets.UTF_8));
+		}
+		return record;
+	}
+}
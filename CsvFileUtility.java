@@ -7,10 +7,25 @@
  * 変更履歴
  *　変更日		変更者		変更概要
  *	2023/08/01	gm.kan		新規作成
+ *	2026/10/19	agent		gzip入出力対応
+ *	2026/10/19	agent		カラムナキャッシュ対応
+ *	2026/10/19	agent		windows-31j変換の高速化
+ *	2026/10/19	agent		先読み入力対応
+ *	2026/10/19	agent		XLSX出力対応
+ *	2026/10/19	agent		複数スレッドへのレコード振り分け対応
+ *	2026/10/19	agent		拡張子判定の共通化
+ *	2026/10/19	agent		読み込みエラーの通知対応
+ *	2026/10/19	agent		カラムナキャッシュの文字コードチェック対応
+ *	2026/10/19	agent		固定長読み込みのcharset解決を初回のみに変更
+ *	2026/10/19	agent		先読みバッファ上限対応
+ *	2026/10/19	agent		書き込みエラーの通知対応
+ *	2026/10/19	agent		出力バイト数を書き込みcharsetで計算するよう修正
+ *	2026/10/19	agent		Reader生成失敗時の入力ストリームのクローズ対応
  *
  */
 package utility;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -18,15 +33,19 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.StringTokenizer;
+import java.util.zip.GZIPInputStream;
 
 /*
  * CSVファイル操作クラス。<br>
@@ -36,6 +55,9 @@ import java.util.StringTokenizer;
  * <li>ファイル作成処理</li>
  * <li>ファイル書き込み処理</li>
  * <li>ファイル書き込み終了処理</li>
+ * <li>gzip圧縮ファイルの読み込み・書き込み（拡張子".gz"）</li>
+ * <li>カラムナキャッシュからの読み込み</li>
+ * <li>XLSXファイルへの書き込み（拡張子".xlsx"）</li>
  * </ul>
  * @since  2023/08/01
  * @version 1.0
@@ -108,6 +130,71 @@ public class CsvFileUtility {
 	 */
 	private String charsetName = "";
 
+	/*
+	 * 読み込み用のcharset（固定長のバイト区切りで使用する）
+	 */
+	private Charset readCharset = Windows31jCharset.INSTANCE;
+
+	/*
+	 * gzip圧縮出力ストリーム（圧縮出力でない場合はnull）
+	 */
+	private ParallelGzipOutputStream gzipOutputStream = null;
+
+	/*
+	 * 書き込み用のcharset（出力バイト数の計算で使用する）
+	 */
+	private Charset writeCharset = Windows31jCharset.INSTANCE;
+
+	/*
+	 * 圧縮後サイズでファイル分割するフラグ
+	 */
+	private boolean compressedSizeLimitFlg = false;
+
+	/*
+	 * 直近の圧縮率（圧縮後バイト数／圧縮前バイト数）
+	 */
+	private double compressionRatio = 1.0;
+
+	/*
+	 * XLSX書き込みオブジェクト（XLSX出力でない場合はnull）
+	 */
+	private XlsxStreamWriter xlsxWriter = null;
+
+	/*
+	 * XLSX出力時の共有文字列フラグ
+	 */
+	private boolean xlsxSharedStringsFlg = false;
+
+	/*
+	 * カラムナキャッシュ（キャッシュを使用しない場合はnull）
+	 */
+	private CsvColumnarCache columnarCache = null;
+
+	/*
+	 * 入力バッファサイズ
+	 */
+	private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+	/*
+	 * 圧縮ファイルの拡張子
+	 */
+	private static final String GZIP_EXTENSION = ".GZ";
+
+	/*
+	 * XLSXファイルの拡張子
+	 */
+	private static final String XLSX_EXTENSION = ".XLSX";
+
+	/*
+	 * CSV解析処理のバージョン（カラムナキャッシュの鮮度チェック用、解析結果が変わる修正をした場合は更新する）
+	 */
+	static final int PARSER_VERSION = 1;
+
+	/*
+	 * CSV出力時の改行コード
+	 */
+	private static final String LINE_SEPARATOR = "\r\n";
+
 	/**
 	 * コンストラクタ<br>
 	 * <b>CSVファイル書き込み用のコンストラクタ。</b><br>
@@ -123,10 +210,10 @@ public class CsvFileUtility {
 
 		try {
 			// BufferedWriterクラスのインスタンス生成
-			this.bufferedWriter = new BufferedWriter(
-					new OutputStreamWriter(new FileOutputStream(filePath), charsetName));
+			this.openWriter(filePath, charsetName);
 			this.charsetName = charsetName;
 			this.filePath = filePath;
+			this.reallyFilePath = filePath;
 
 			// 出力済ファイルパスリストインスタンス化
 			this.outputFilePathList = new ArrayList<String>();
@@ -145,6 +232,9 @@ public class CsvFileUtility {
 			// 可変パラメータ設定「ファイルパス」
 			String[] kahenParam = { filePath };
 			e.printStackTrace();
+		} catch (IOException e) {
+			// 入出力処理に失敗しました。
+			e.printStackTrace();
 		}
 	}
 
@@ -162,10 +252,10 @@ public class CsvFileUtility {
 
 		try {
 			// BufferedWriterクラスのインスタンス生成
-			this.bufferedWriter = new BufferedWriter(
-					new OutputStreamWriter(new FileOutputStream(filePath), "windows-31j"));
+			this.openWriter(filePath, "windows-31j");
 			this.charsetName = "windows-31j";
 			this.filePath = filePath;
+			this.reallyFilePath = filePath;
 
 			// 出力済ファイルパスリストインスタンス化
 			this.outputFilePathList = new ArrayList<String>();
@@ -198,7 +288,7 @@ public class CsvFileUtility {
 
 		try {
 			// BufferedReaderクラスのインスタンス生成
-			this.bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "windows-31j"));
+			this.bufferedReader = new BufferedReader(openReader(file.getPath(), "windows-31j"));
 			this.filePath = file.getPath();
 
 		} catch (FileNotFoundException e) {
@@ -225,8 +315,7 @@ public class CsvFileUtility {
 
 		try {
 			// BufferedReaderクラスのインスタンス生成
-			this.bufferedReader = new BufferedReader(
-					new InputStreamReader(new FileInputStream(filePath), "windows-31j"));
+			this.bufferedReader = new BufferedReader(openReader(filePath, "windows-31j"));
 			this.filePath = filePath;
 
 		} catch (FileNotFoundException e) {
@@ -254,10 +343,11 @@ public class CsvFileUtility {
 
 		try {
 			// BufferedReaderクラスのインスタンス生成
-			this.bufferedReader = new BufferedReader(
-					new InputStreamReader(new FileInputStream(filePath), charsetName));
+			this.bufferedReader = new BufferedReader(openReader(filePath, charsetName));
 			this.filePath = filePath;
 			this.charsetName = charsetName;
+			// レコードごとに名前から解決しないよう、ここで解決しておく
+			this.readCharset = getCharset(charsetName);
 
 		} catch (UnsupportedEncodingException e) {
 			// エンコード指定エラー
@@ -287,98 +377,363 @@ public class CsvFileUtility {
 	 */
 	public void writeFileLine(String data) {
 		try {
-			// ファイルサイズ・行数をチェックし、ファイルサイズ・行数が多い場合は、ファイルの分割を行う。
-			if (this.readLine + 1 > this.prop.getMaxLine() ||
-					(this.byteSizeAmt + data.getBytes().length) > this.prop.getMaxFileSize()) {
-				// 前ファイルの出力
-				this.writeClose();
-
-				this.fileObj = new File(this.reallyFilePath);
-				// 拡張子は".csv", ".txt",なしの三つパターンを想定する
-				int extensionIndex = this.filePath.toUpperCase().lastIndexOf(".CSV");
-				if (extensionIndex == -1) {
-					extensionIndex = this.filePath.toUpperCase().lastIndexOf(".TXT");
-				}
-				String extension = null;
-				if (extensionIndex > 0) {
-					extension = this.filePath.substring(extensionIndex);
-				}
-				StringBuffer tmpPath = new StringBuffer();
-				if (extension == null) {
-					// 拡張子なしの場合
-					tmpPath.append(this.filePath);
-				} else {
-					// 拡張子ありの場合
-					tmpPath.append(this.filePath.substring(0, extensionIndex));
-				}
+			this.writeLine(data);
+		} catch (IOException e) {
+			// 入出力処理に失敗しました。
+			e.printStackTrace();
+		}
+	}
 
-				// 各メンバ変数の初期化
-				this.readLine = 0;
+	/**
+	 * データ書き込み処理（入出力エラー通知あり）<br>
+	 * <br>
+	 * {@link #writeFileLine(String)}と同じ処理を行い、入出力エラーは例外として返却する。
+	 * @param data データ
+	 * @exception IOException 入出力エラー
+	 */
+	void writeLine(String data) throws IOException {
+		// XLSX出力の場合は、CSV形式の行を項目に分割して書き込み
+		if (this.xlsxWriter != null) {
+			this.writeRecord(splitCsvLine(data));
+			return;
+		}
+		// ファイルサイズ・行数をチェックし、ファイルサイズ・行数が多い場合は、ファイルの分割を行う。
+		if (this.readLine + 1 > this.prop.getMaxLine() ||
+				(this.getOutputSize() + this.getByteLength(data)) > this.prop.getMaxFileSize()) {
+			// 次ファイルへの切り替え
+			this.changeNextFile();
+		}
 
-				// ２ファイル目の場合、１ファイル目のファイル名をリネームする
-				if (this.outputFileCount == 2) {
-					this.fileObj = new File(this.filePath);
+		// BufferedWriterオブジェクトがNULLである場合は書き込み処理を行わない
+		if (this.bufferedWriter != null) {
+			// データをファイルに書き込み
+			this.bufferedWriter.write(Objects.toString(data, ""));
+		}
+		// 出力バイト数合計のカウントアップ
+		this.byteSizeAmt += this.getByteLength(data);
+		//行カウンタのカウントアップ
+		this.readLine++;
+	}
 
-					StringBuffer tmpPathFirst = new StringBuffer(tmpPath.toString());
-					tmpPathFirst.append("_" + this.paddingFormat.format(1));
-					if (extension != null) {
-						tmpPathFirst.append(extension);
-					}
-					String toPath = tmpPathFirst.toString();
-					String fromPath = this.filePath;
-					// BatchUtility.copyFile(fromPath, toPath);
-					Files.copy(Paths.get(fromPath), Paths.get(toPath));
+	/**
+	 * データ書き込み処理。項目指定<br>
+	 * <br>
+	 * XLSX出力（拡張子".xlsx"）の場合は１行をシートの１行として書き込み、
+	 * シートの最大行数（{@value XlsxStreamWriter#MAX_ROWS}行）または最大行数のプロパティを超える場合はファイルを分割する。<br>
+	 * CSV出力の場合は、項目をカンマ区切り（必要に応じてダブルクォーテーションで囲む）の１行として書き込む。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.writeFileLine(rowData);</code>
+	 * </pre>
+	 * @param rowData 一行分のデータ
+	 * @exception IOException システム重度エラー
+	 */
+	public void writeFileLine(ArrayList<String> rowData) {
+		try {
+			this.writeRecord(rowData);
+		} catch (IOException e) {
+			// 入出力処理に失敗しました。
+			e.printStackTrace();
+		}
+	}
 
-					// 出力済みファイルリストも同様にリネーム
-					this.outputFilePathList.clear();
-					this.outputFilePathList.add(toPath);
+	/**
+	 * データ書き込み処理。項目指定（入出力エラー通知あり）<br>
+	 * <br>
+	 * {@link #writeFileLine(ArrayList)}と同じ処理を行い、入出力エラーは例外として返却する。
+	 * @param rowData 一行分のデータ
+	 * @exception IOException 入出力エラー
+	 */
+	void writeRecord(ArrayList<String> rowData) throws IOException {
+		if (this.xlsxWriter == null) {
+			this.writeLine(toCsvLine(rowData));
+			return;
+		}
+		// 行数をチェックし、行数が多い場合は、ファイルの分割を行う。
+		if (this.isWriteNextFile(rowData)) {
+			// 次ファイルへの切り替え
+			this.changeNextFile();
+		}
+		this.xlsxWriter.writeRow(rowData);
+		//行カウンタのカウントアップ
+		this.readLine++;
+	}
 
-				}
-				// パディングする桁数をファイル数が候える場合はエラー
-				if (Integer.toString(this.outputFileCount).length() > this.prop.getPaddingFormat().length()) {
-					// エラーメッセージ出力
-					String kahenParam[] = { String.valueOf(this.outputFileCount) };
-					// todo ログ出力
-				}
+	/**
+	 * 書き込み可能か判定する。<br>
+	 * @return true:書き込み可能／false:書き込み用のファイルが開けていない
+	 */
+	boolean isWritable() {
+		return this.bufferedWriter != null || this.xlsxWriter != null;
+	}
 
-				// ファイル名の末尾に「_X」の数字を付番する
-				tmpPath.append("_");
-				tmpPath.append(this.paddingFormat.format(this.outputFileCount));
-				// tmpPath.append(".csv");
-				if (extension != null) {
-					tmpPath.append(extension);
-				}
-				this.reallyFilePath = tmpPath.toString();
-				this.fileObj = new File(this.reallyFilePath);
-				// ファイル有無の確認
-				if (this.fileObj.exists()) {
-					// エラーメッセージ出力
-					String kahenParam[] = { this.reallyFilePath };
-					// todo log4
-				}
+	/**
+	 * 出力ファイル切り替え処理<br>
+	 * <br>
+	 * 現在のファイルを閉じ、ファイル名の末尾に「_X」の数字を付番したファイルに切り替える。
+	 * @exception IOException 入出力エラー
+	 */
+	private void changeNextFile() throws IOException {
+		// 前ファイルの出力
+		this.closeWriter();
+
+		this.fileObj = new File(this.reallyFilePath);
+		// 拡張子は".csv", ".txt", ".xlsx",なしのパターンを想定する（圧縮ファイルの場合は".gz"付き）
+		int extensionIndex = getExtensionIndex(this.filePath);
+		String extension = null;
+		if (extensionIndex > 0) {
+			extension = this.filePath.substring(extensionIndex);
+		}
+		StringBuffer tmpPath = new StringBuffer();
+		if (extension == null) {
+			// 拡張子なしの場合
+			tmpPath.append(this.filePath);
+		} else {
+			// 拡張子ありの場合
+			tmpPath.append(this.filePath.substring(0, extensionIndex));
+		}
+
+		// 各メンバ変数の初期化
+		this.readLine = 0;
+
+		// ２ファイル目の場合、１ファイル目のファイル名をリネームする
+		if (this.outputFileCount == 2) {
+			this.fileObj = new File(this.filePath);
 
-				this.bufferedWriter = new BufferedWriter(
-						new OutputStreamWriter(new FileOutputStream(this.reallyFilePath), this.charsetName));
-				// 出力済みファイルリストにパスを追加
-				this.outputFilePathList.add(tmpPath.toString());
-				// 出力バイト数合計のクリア
-				this.byteSizeAmt = 0;
+			StringBuffer tmpPathFirst = new StringBuffer(tmpPath.toString());
+			tmpPathFirst.append("_" + this.paddingFormat.format(1));
+			if (extension != null) {
+				tmpPathFirst.append(extension);
 			}
+			String toPath = tmpPathFirst.toString();
+			String fromPath = this.filePath;
+			// BatchUtility.copyFile(fromPath, toPath);
+			Files.copy(Paths.get(fromPath), Paths.get(toPath));
 
-			// BufferedWriterオブジェクトがNULLである場合は書き込み処理を行わない
-			if (this.bufferedWriter != null) {
-				// データをファイルに書き込み
-				this.bufferedWriter.write(Objects.toString(data, ""));
+			// 出力済みファイルリストも同様にリネーム
+			this.outputFilePathList.clear();
+			this.outputFilePathList.add(toPath);
+
+		}
+		// パディングする桁数をファイル数が候える場合はエラー
+		if (Integer.toString(this.outputFileCount).length() > this.prop.getPaddingFormat().length()) {
+			// エラーメッセージ出力
+			String kahenParam[] = { String.valueOf(this.outputFileCount) };
+			// todo ログ出力
+		}
+
+		// ファイル名の末尾に「_X」の数字を付番する
+		tmpPath.append("_");
+		tmpPath.append(this.paddingFormat.format(this.outputFileCount));
+		// tmpPath.append(".csv");
+		if (extension != null) {
+			tmpPath.append(extension);
+		}
+		this.reallyFilePath = tmpPath.toString();
+		this.fileObj = new File(this.reallyFilePath);
+		// ファイル有無の確認
+		if (this.fileObj.exists()) {
+			// エラーメッセージ出力
+			String kahenParam[] = { this.reallyFilePath };
+			// todo log4
+		}
+
+		this.openWriter(this.reallyFilePath, this.charsetName);
+		// 出力済みファイルリストにパスを追加
+		this.outputFilePathList.add(tmpPath.toString());
+		// 出力バイト数合計のクリア
+		this.byteSizeAmt = 0;
+	}
+
+	/**
+	 * 入力ストリーム生成処理<br>
+	 * <br>
+	 * 先読みブロックより大きいファイルは、別スレッドで先読みするストリーム（{@link ReadAheadInputStream}）で読み込む。
+	 * 先読みのバッファが上限に達している場合は通常の読み込みを行う。<br>
+	 * 先頭がgzipのマジックナンバーの場合は、展開しながら読み込むストリームを返却する。
+	 * @param filePath ファイルパス
+	 * @return 入力ストリーム
+	 * @exception IOException 入出力エラー
+	 */
+	private static InputStream openInputStream(String filePath) throws IOException {
+		InputStream in = null;
+		if (new File(filePath).length() > ReadAheadInputStream.BLOCK_SIZE) {
+			in = ReadAheadInputStream.tryOpen(filePath);
+		}
+		// 小さいファイル、または先読みのバッファが上限に達している場合は通常の読み込みを行う
+		if (in == null) {
+			in = new BufferedInputStream(new FileInputStream(filePath), INPUT_BUFFER_SIZE);
+		}
+		try {
+			// 先頭2バイトでgzipファイルか判定する
+			in.mark(2);
+			int magic = in.read() | (in.read() << 8);
+			in.reset();
+			if (magic == GZIPInputStream.GZIP_MAGIC) {
+				return new GZIPInputStream(in, INPUT_BUFFER_SIZE);
 			}
-			// 出力バイト数合計のカウントアップ
-			this.byteSizeAmt += data.getBytes().length;
-			//行カウンタのカウントアップ
-			this.readLine++;
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+		return in;
+	}
 
-		} catch (IOException e) {
-			// 入出力処理に失敗しました。
-			e.printStackTrace();
+	/**
+	 * 読み込み用Reader生成処理（ファイル指定）<br>
+	 * <br>
+	 * Readerの生成に失敗した場合は、開いた入力ストリームを閉じる（先読みスレッド・バッファを解放する）。
+	 * @param filePath ファイルパス
+	 * @param charsetName サポートするcharset名前
+	 * @return Reader
+	 * @exception UnsupportedEncodingException エンコード指定エラー
+	 * @exception IOException 入出力エラー
+	 */
+	private static InputStreamReader openReader(String filePath, String charsetName) throws IOException {
+		InputStream in = openInputStream(filePath);
+		try {
+			return createReader(in, charsetName);
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 読み込み用Reader生成処理<br>
+	 * <br>
+	 * windows-31jの場合は、表引きで変換する{@link Windows31jCharset}を使用する。
+	 * @param in 入力ストリーム
+	 * @param charsetName サポートするcharset名前
+	 * @return Reader
+	 * @exception UnsupportedEncodingException エンコード指定エラー
+	 */
+	private static InputStreamReader createReader(InputStream in, String charsetName)
+			throws UnsupportedEncodingException {
+		if (Windows31jCharset.isWindows31j(charsetName)) {
+			return new InputStreamReader(in, Windows31jCharset.INSTANCE);
+		}
+		return new InputStreamReader(in, charsetName);
+	}
+
+	/**
+	 * charset取得処理<br>
+	 * <br>
+	 * windows-31j（空文字を含む）の場合は、表引きで変換する{@link Windows31jCharset}を返却する。
+	 * @param charsetName サポートするcharset名前
+	 * @return charset
+	 */
+	private static Charset getCharset(String charsetName) {
+		if (charsetName == null || "".equals(charsetName) || Windows31jCharset.isWindows31j(charsetName)) {
+			return Windows31jCharset.INSTANCE;
+		}
+		return Charset.forName(charsetName);
+	}
+
+	/**
+	 * 書き込み用Writer生成処理<br>
+	 * <br>
+	 * windows-31jの場合は、表引きで変換する{@link Windows31jCharset}を使用する。
+	 * @param out 出力ストリーム
+	 * @param charsetName サポートするcharset名前
+	 * @return Writer
+	 * @exception UnsupportedEncodingException エンコード指定エラー
+	 */
+	private static OutputStreamWriter createWriter(OutputStream out, String charsetName)
+			throws UnsupportedEncodingException {
+		if (Windows31jCharset.isWindows31j(charsetName)) {
+			return new OutputStreamWriter(out, Windows31jCharset.INSTANCE);
+		}
+		return new OutputStreamWriter(out, charsetName);
+	}
+
+	/**
+	 * ファイルパスの拡張子の開始位置を取得する。<br>
+	 * <br>
+	 * 拡張子は".csv", ".txt", ".xlsx",なしのパターンを想定する（圧縮ファイルの場合は".gz"付き）。
+	 * @param path ファイルパス
+	 * @return 拡張子の開始位置（拡張子なしの場合は-1）
+	 */
+	static int getExtensionIndex(String path) {
+		String upperPath = path.toUpperCase();
+		int extensionIndex = upperPath.lastIndexOf(".CSV");
+		if (extensionIndex == -1) {
+			extensionIndex = upperPath.lastIndexOf(".TXT");
+		}
+		if (extensionIndex == -1) {
+			extensionIndex = upperPath.lastIndexOf(XLSX_EXTENSION);
+		}
+		if (extensionIndex == -1) {
+			extensionIndex = upperPath.lastIndexOf(GZIP_EXTENSION);
+		}
+		return extensionIndex;
+	}
+
+	/**
+	 * 書き込みオブジェクト生成処理<br>
+	 * <br>
+	 * 拡張子が".xlsx"の場合はXLSX書き込みオブジェクト、それ以外はBufferedWriterを生成する。
+	 * @param path ファイルパス
+	 * @param charsetName サポートするcharset名前
+	 * @exception IOException 入出力エラー
+	 */
+	private void openWriter(String path, String charsetName) throws IOException {
+		if (path.toUpperCase().endsWith(XLSX_EXTENSION)) {
+			this.xlsxWriter = new XlsxStreamWriter(new FileOutputStream(path));
+			this.xlsxWriter.setSharedStrings(this.xlsxSharedStringsFlg);
+			this.bufferedWriter = null;
+		} else {
+			this.bufferedWriter = new BufferedWriter(createWriter(this.openOutputStream(path), charsetName));
+			this.writeCharset = getCharset(charsetName);
+			this.xlsxWriter = null;
+		}
+	}
+
+	/**
+	 * 出力バイト数取得処理<br>
+	 * <br>
+	 * 実際に書き込むcharsetで変換したバイト数を返却する（JVMのデフォルトcharsetには依存しない）。
+	 * @param data データ
+	 * @return 出力バイト数
+	 */
+	private int getByteLength(String data) {
+		return data.getBytes(this.writeCharset).length;
+	}
+
+	/**
+	 * 出力ストリーム生成処理<br>
+	 * <br>
+	 * 拡張子が".gz"の場合は、ブロック単位で並列にgzip圧縮するストリームを返却する。
+	 * @param path ファイルパス
+	 * @return 出力ストリーム
+	 * @exception FileNotFoundException ファイルが作成できない場合
+	 */
+	private OutputStream openOutputStream(String path) throws FileNotFoundException {
+		FileOutputStream out = new FileOutputStream(path);
+		if (path.toUpperCase().endsWith(GZIP_EXTENSION)) {
+			this.gzipOutputStream = new ParallelGzipOutputStream(out);
+			return this.gzipOutputStream;
+		}
+		this.gzipOutputStream = null;
+		return out;
+	}
+
+	/**
+	 * 現在書き込み中ファイルの出力バイト数を取得する。<br>
+	 * 圧縮後サイズで分割する場合は、圧縮済みバイト数に未圧縮分を直近の圧縮率で換算したバイト数を加えた見積り値とする。
+	 * @return 出力バイト数
+	 */
+	private long getOutputSize() {
+		if (this.compressedSizeLimitFlg && this.gzipOutputStream != null) {
+			long compressedInputSize = this.gzipOutputStream.getCompressedInputSize();
+			if (compressedInputSize > 0) {
+				this.compressionRatio = (double) this.gzipOutputStream.getCompressedSize() / compressedInputSize;
+			}
+			long uncompressed = Math.max(0, this.byteSizeAmt - compressedInputSize);
+			return this.gzipOutputStream.getCompressedSize() + (long) (uncompressed * this.compressionRatio);
 		}
+		return this.byteSizeAmt;
 	}
 
 	/**
@@ -425,131 +780,218 @@ public class CsvFileUtility {
 	 * <pre>
 	 * 	<code>String lineData = instance.readFileLineToArray();</code>
 	 * </pre>
-	 * @return 一行分のデータ
+	 * @return 一行分のデータ（終端、または入出力エラーの場合はnull）
 	 * @exception IOException システム重度エラー
 	 */
 	public ArrayList<String> readFileLineToArray() {
+		try {
+			return this.readRecord();
+		} catch (IOException e) {
+			// 入出力処理に失敗しました。
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * データ読み取り処理（入出力エラー通知あり）<br>
+	 * <br>
+	 * {@link #readFileLineToArray()}と同じ解析を行い、入出力エラーは例外として返却する。
+	 * @return 一行分のデータ（終端の場合はnull）
+	 * @exception IOException 入出力エラー（ファイルが開けていない場合、圧縮ファイルが壊れている場合等）
+	 */
+	ArrayList<String> readRecord() throws IOException {
+		// カラムナキャッシュ使用時はキャッシュから読み込む
+		if (this.columnarCache != null) {
+			return this.columnarCache.readRecord();
+		}
+		if (this.bufferedReader == null) {
+			throw new IOException("ファイルが読み込み用にオープンされていません。:" + this.filePath);
+		}
+
 		// 1行ごとに格納する配列のインスタンス化
 		ArrayList<String> lineDataList = new ArrayList<String>();
 
-		try {
-			String lineData = this.bufferedReader.readLine();
-			if (lineData == null) {
-				return null;
-			}
-			StringTokenizer st = new StringTokenizer(lineData, ",", true);
-			boolean isEnd = true;
-			boolean isComma = false;
-			StringBuffer tmpMargeVal = null;
-			// 最初のデータフラグ
-			boolean isFirstData = true;
-			while (true) {
-				while (st.hasMoreElements()) {
-					String tmpVal = st.nextToken();
-
-					// 特殊文字がある場合は、文字が変換できず「&#[0-9]*;」となるため
-					// 特殊文字を「?(&#9824;)」に変換する
-					if (tmpVal.contains("&#")) {
-						tmpVal = tmpVal.replaceAll("&#[0-9]*;", "?");
-					}
+		String lineData = this.bufferedReader.readLine();
+		if (lineData == null) {
+			return null;
+		}
+		StringTokenizer st = new StringTokenizer(lineData, ",", true);
+		boolean isEnd = true;
+		boolean isComma = false;
+		StringBuffer tmpMargeVal = null;
+		// 最初のデータフラグ
+		boolean isFirstData = true;
+		while (true) {
+			while (st.hasMoreElements()) {
+				String tmpVal = st.nextToken();
 
-					if (isEnd) {
-						if (tmpVal.length() > 0 && tmpVal.charAt(0) == '\"') {
-							if (tmpVal.length() > 1 && tmpVal.charAt(tmpVal.length() - 1) == '\"') {
-								lineDataList.add(this.editInyoufu(tmpVal));
-								isComma = false;
+				// 特殊文字がある場合は、文字が変換できず「&#[0-9]*;」となるため
+				// 特殊文字を「?(&#9824;)」に変換する
+				if (tmpVal.contains("&#")) {
+					tmpVal = tmpVal.replaceAll("&#[0-9]*;", "?");
+				}
+
+				if (isEnd) {
+					if (tmpVal.length() > 0 && tmpVal.charAt(0) == '\"') {
+						if (tmpVal.length() > 1 && tmpVal.charAt(tmpVal.length() - 1) == '\"') {
+							lineDataList.add(this.editInyoufu(tmpVal));
+							isComma = false;
+						}
+						// 2文字目以降にダブルクォーテーションが来た場合は、１項目とと判定する
+						else if (tmpVal.length() > 1 && 0 < tmpVal.indexOf('\"', 1)) {
+							int endIndex = tmpVal.indexOf('\"', 1);
+							tmpVal = editInyoufu(tmpVal, 1, endIndex);
+							if (tmpVal != null) {
+								tmpVal = tmpVal.trim();
 							}
+							lineDataList.add(tmpVal);
+							isComma = false;
+						} else {
+							isEnd = false;
+							tmpMargeVal = new StringBuffer(tmpVal);
+							if (st.hasMoreElements()) {
+								continue;
+							}
+							isComma = false;
+						}
+					} else {
+						if (!",".equals(tmpVal)) {
 							// 2文字目以降にダブルクォーテーションが来た場合は、１項目とと判定する
-							else if (tmpVal.length() > 1 && 0 < tmpVal.indexOf('\"', 1)) {
-								int endIndex = tmpVal.indexOf('\"', 1);
-								tmpVal = editInyoufu(tmpVal, 1, endIndex);
-								if (tmpVal != null) {
-									tmpVal = tmpVal.trim();
+							if (tmpVal.length() > 1 && 0 < tmpVal.indexOf('\"', 1)) {
+								int startIndex = tmpVal.indexOf('\"', 1);
+								int endIndex = -1;
+								if (startIndex > 0 && (startIndex + 1) < tmpVal.length()) {
+									endIndex = tmpVal.indexOf('\"', startIndex + 1);
 								}
-								lineDataList.add(tmpVal);
-								isComma = false;
-							} else {
-								isEnd = false;
-								tmpMargeVal = new StringBuffer(tmpVal);
-								if (st.hasMoreElements()) {
-									continue;
+								if (startIndex > 0 && endIndex > 0) {
+									tmpVal = editInyoufu(tmpVal, startIndex + 1, endIndex);
+								} else {
+									isEnd = false;
+									tmpMargeVal = new StringBuffer(tmpVal);
+									if (st.hasMoreElements()) {
+										continue;
+									}
+									isComma = false;
 								}
-								isComma = false;
 							}
+							if (tmpVal != null) {
+								tmpVal = tmpVal.trim();
+							}
+							lineDataList.add(tmpVal);
+							isComma = false;
 						} else {
-							if (!",".equals(tmpVal)) {
-								// 2文字目以降にダブルクォーテーションが来た場合は、１項目とと判定する
-								if (tmpVal.length() > 1 && 0 < tmpVal.indexOf('\"', 1)) {
-									int startIndex = tmpVal.indexOf('\"', 1);
-									int endIndex = -1;
-									if (startIndex > 0 && (startIndex + 1) < tmpVal.length()) {
-										endIndex = tmpVal.indexOf('\"', startIndex + 1);
-									}
-									if (startIndex > 0 && endIndex > 0) {
-										tmpVal = editInyoufu(tmpVal, startIndex + 1, endIndex);
-									} else {
-										isEnd = false;
-										tmpMargeVal = new StringBuffer(tmpVal);
-										if (st.hasMoreElements()) {
-											continue;
-										}
-										isComma = false;
-									}
-								}
-								if (tmpVal != null) {
-									tmpVal = tmpVal.trim();
-								}
-								lineDataList.add(tmpVal);
-								isComma = false;
+							if (isComma) {
+								// カンマが２つ続いたら空文字を追加
+								lineDataList.add("");
+							} else if (isFirstData) {
+								// 最初のデータが","の場合から文字を追加
+								lineDataList.add("");
+								isComma = true;
 							} else {
-								if (isComma) {
-									// カンマが２つ続いたら空文字を追加
-									lineDataList.add("");
-								} else if (isFirstData) {
-									// 最初のデータが","の場合から文字を追加
-									lineDataList.add("");
-									isComma = true;
-								} else {
-									isComma = true;
-								}
+								isComma = true;
 							}
 						}
-					} else {
-						if (tmpVal.length() > 0 && tmpVal.charAt(tmpVal.length() - 1) == '\"') {
-							tmpMargeVal.append(tmpVal);
-							isEnd = true;
-							lineDataList.add(this.editInyoufu(tmpMargeVal.toString()));
-						} else {
-							tmpMargeVal.append(tmpVal);
-						}
 					}
-					if (isFirstData) {
-						isFirstData = false;
+				} else {
+					if (tmpVal.length() > 0 && tmpVal.charAt(tmpVal.length() - 1) == '\"') {
+						tmpMargeVal.append(tmpVal);
+						isEnd = true;
+						lineDataList.add(this.editInyoufu(tmpMargeVal.toString()));
+					} else {
+						tmpMargeVal.append(tmpVal);
 					}
 				}
-				if (isEnd) {
-					break;
-				}
-				lineData = this.bufferedReader.readLine();
-				if (lineData == null) {
-					lineDataList.add(this.editInyoufu(tmpMargeVal.toString()));
-					break;
+				if (isFirstData) {
+					isFirstData = false;
 				}
-				st = new StringTokenizer(lineData, ",", true);
-				tmpMargeVal.append("\n");
 			}
-			// 最後がカンマで終わってる場合空文字を追加
-			if (isComma) {
-				lineDataList.add("");
+			if (isEnd) {
+				break;
 			}
-		} catch (IOException e) {
-			// 入出力処理に失敗しました。
-			e.printStackTrace();
+			lineData = this.bufferedReader.readLine();
+			if (lineData == null) {
+				lineDataList.add(this.editInyoufu(tmpMargeVal.toString()));
+				break;
+			}
+			st = new StringTokenizer(lineData, ",", true);
+			tmpMargeVal.append("\n");
+		}
+		// 最後がカンマで終わってる場合空文字を追加
+		if (isComma) {
+			lineDataList.add("");
+		}
+
+		return lineDataList;
+	}
+
+	/**
+	 * データ読み取り処理。列指定<br>
+	 * <br>
+	 * 指定列が存在しない行の場合は空文字を設定する。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>ArrayList&lt;String&gt; lineData = instance.readFileLineToArray(new int[] { 0, 3 });</code>
+	 * </pre>
+	 * @param columnIndexes 取得する列番号
+	 * @return 一行分のデータ
+	 * @exception IOException システム重度エラー
+	 */
+	public ArrayList<String> readFileLineToArray(int[] columnIndexes) {
+		ArrayList<String> lineDataList = null;
+
+		// カラムナキャッシュ使用時は指定列のみ復元する
+		if (this.columnarCache != null) {
+			try {
+				lineDataList = this.columnarCache.readRecord(columnIndexes);
+			} catch (IOException e) {
+				// 入出力処理に失敗しました。
+				e.printStackTrace();
+			}
+			return lineDataList;
 		}
 
+		ArrayList<String> allDataList = this.readFileLineToArray();
+		if (allDataList == null) {
+			return null;
+		}
+		lineDataList = new ArrayList<String>(columnIndexes.length);
+		for (int columnIndex : columnIndexes) {
+			if (columnIndex >= 0 && columnIndex < allDataList.size()) {
+				lineDataList.add(allDataList.get(columnIndex));
+			} else {
+				lineDataList.add("");
+			}
+		}
 		return lineDataList;
 	}
 
+	/**
+	 * データ振り分け処理<br>
+	 * <br>
+	 * 本インスタンスから読み込んだレコードを、{@link CsvRecordDispatcher}で複数のワーカースレッドに振り分けて処理する。<br>
+	 * 処理結果は呼び出し元のスレッドで結果ハンドラに渡す。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.dispatchFileLine(4, 1000, true, worker, result -&gt; writer.writeFileLine(result));</code>
+	 * </pre>
+	 * @param workerCount ワーカー数
+	 * @param batchSize バッチサイズ（レコード数）
+	 * @param orderedFlg true:結果を読み込み順に渡す／false:処理が終わった順に渡す
+	 * @param worker レコード処理ワーカー
+	 * @param resultHandler 処理結果ハンドラ（nullの場合は結果を破棄する）
+	 * @return 読み込んだレコード数
+	 * @exception IOException ワーカー・結果ハンドラ・読み込みのエラー
+	 */
+	public <R> long dispatchFileLine(int workerCount, int batchSize, boolean orderedFlg,
+			CsvRecordDispatcher.RecordWorker<R> worker, CsvRecordDispatcher.ResultHandler<R> resultHandler)
+			throws IOException {
+		CsvRecordDispatcher<R> dispatcher = new CsvRecordDispatcher<R>(this, workerCount, batchSize, orderedFlg);
+		return dispatcher.dispatch(worker, resultHandler);
+	}
+
 	/**
 	 * データ読み取り処理。（固定長）<br>
 	 * <br>
@@ -558,7 +1000,7 @@ public class CsvFileUtility {
 	 * 	<code>String lineData = instance.readFileLineToArray(itemLengthList);</code>
 	 * </pre>
 	 * @param	itemLengthList 項目長配列
-	 * @return 一行分のデータ
+	 * @return 一行分のデータ（終端、または入出力エラーの場合はnull）
 	 * @exception IOException システム重度エラー
 	 */
 	public ArrayList<String> readFileLineToArray(ArrayList<Integer> itemLengthList) {
@@ -575,14 +1017,8 @@ public class CsvFileUtility {
 			try {
 				if (this.prop.getSeparateFlg().equals(SEPARETE_BYTE)) {
 
-					byte[] bytes = null;
-					if (this.charsetName == null || "".equals(this.charsetName)) {
-						// 固定長文字列を取得
-						bytes = fixLineData.getBytes("windows-31j");
-					} else {
-						// 固定長文字列を取得
-						bytes = fixLineData.getBytes(this.charsetName);
-					}
+					// 固定長文字列を取得
+					byte[] bytes = fixLineData.getBytes(this.readCharset);
 					// 1バイトずつループ
 					int i = 0;
 					while (i < bytes.length) {
@@ -602,12 +1038,7 @@ public class CsvFileUtility {
 							}
 
 							// byte区切り位置を退避
-							String tempResult = null;
-							if (this.charsetName == null || "".equals(this.charsetName)) {
-								tempResult = new String(temp, "windows-31j");
-							} else {
-								tempResult = new String(temp, this.charsetName);
-							}
+							String tempResult = new String(temp, this.readCharset);
 							// 特殊文字がある場合は、文字が変換できず「&#[0-9]*;」となるため
 							// 特殊文字を「?(&#9824;)」に変換する
 							if (tempResult.contains("&#")) {
@@ -643,16 +1074,13 @@ public class CsvFileUtility {
 				// 指定した区切り値（バイト）に誤りがあります
 				// CSVデータの読み込みに失敗しました。
 				aie.printStackTrace();
-			} catch (UnsupportedEncodingException e) {
-				// CSVデータの読み込みに失敗しました。
-				// 可変パラメータ設定
-				String[] kahenParam = { "windows-31j" };
-				e.printStackTrace();
 			}
 
 		} catch (IOException ioe) {
 			// 入出力処理に失敗しました。
+			// 壊れた圧縮ファイル等では以降の読み込みも失敗するため、終端として扱う
 			ioe.printStackTrace();
+			return null;
 		}
 		return lineDataList;
 	}
@@ -719,16 +1147,11 @@ public class CsvFileUtility {
 	}
 
 	/**
-	 * ファイル書き込み反映処理
+	 * ファイル書き込み終了処理
 	 */
-	private void flush() {
+	public void writeClose() {
 		try {
-
-			// BufferedWriterオブジェクトがNULLではない場合
-			if (this.bufferedWriter != null) {
-				// ファイルの書き込みを反映させる
-				this.bufferedWriter.flush();
-			}
+			this.closeWriter();
 		} catch (IOException e) {
 			// 入出力処理に失敗しました。
 			e.printStackTrace();
@@ -736,22 +1159,28 @@ public class CsvFileUtility {
 	}
 
 	/**
-	 * ファイル書き込み終了処理
+	 * ファイル書き込み終了処理（入出力エラー通知あり）<br>
+	 * <br>
+	 * {@link #writeClose()}と同じ処理を行い、書き込み反映・終了時の入出力エラー（ディスク容量不足等）は例外として返却する。
+	 * @exception IOException 入出力エラー
 	 */
-	public void writeClose() {
-		try {
-			// 出力ファイル数カウンタのカウントアップ
-			this.outputFileCount++;
+	void closeWriter() throws IOException {
+		// 出力ファイル数カウンタのカウントアップ
+		this.outputFileCount++;
 
-			// BufferedWriterオブジェクトがNULLではない場合
-			if (this.bufferedWriter != null) {
-				// ファイルの書き込みを終了させる
-				this.flush();
+		// BufferedWriterオブジェクトがNULLではない場合
+		if (this.bufferedWriter != null) {
+			// ファイルの書き込みを終了させる（反映に失敗した場合もファイルは閉じる）
+			try {
+				this.bufferedWriter.flush();
+			} finally {
 				this.bufferedWriter.close();
 			}
-		} catch (IOException e) {
-			// 入出力処理に失敗しました。
-			e.printStackTrace();
+		}
+		// XLSX書き込みオブジェクトがNULLではない場合
+		if (this.xlsxWriter != null) {
+			// ブックの書き込みを終了させる
+			this.xlsxWriter.close();
 		}
 	}
 
@@ -760,6 +1189,11 @@ public class CsvFileUtility {
 	 */
 	public void readClose() {
 		try {
+			// カラムナキャッシュ使用時はキャッシュも終了させる
+			if (this.columnarCache != null) {
+				this.columnarCache.close();
+				this.columnarCache = null;
+			}
 			// BufferedReaderオブジェクトがNULLではない場合
 			if (this.bufferedReader != null) {
 				// ファイルの読み込みを終了させる
@@ -771,6 +1205,39 @@ public class CsvFileUtility {
 		}
 	}
 
+	/**
+	 * カラムナキャッシュ使用処理<br>
+	 * <br>
+	 * 有効なキャッシュファイル（{@link CsvColumnarCache}）がある場合、以降の
+	 * {@link #readFileLineToArray()}はCSVを解析せずにキャッシュから読み込む。<br>
+	 * キャッシュが存在しない、または元ファイルが更新されている場合は、作成フラグがtrueであれば
+	 * キャッシュを作成して使用し、falseであればCSVから読み込む。<br>
+	 * コンストラクタ実行後、読み込み開始前に呼び出すこと。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.useColumnarCache(true);</code>
+	 * </pre>
+	 * @param createFlg キャッシュ作成フラグ
+	 * @return true:キャッシュから読み込む／false:CSVから読み込む
+	 */
+	public boolean useColumnarCache(boolean createFlg) {
+		if (this.filePath == null || this.bufferedReader == null) {
+			return false;
+		}
+		this.columnarCache = CsvColumnarCache.open(this.filePath, this.charsetName);
+		if (this.columnarCache == null && createFlg) {
+			try {
+				CsvColumnarCache.create(this.filePath, this.charsetName);
+				this.columnarCache = CsvColumnarCache.open(this.filePath, this.charsetName);
+			} catch (IOException e) {
+				// キャッシュの作成に失敗した場合はCSVから読み込む
+				e.printStackTrace();
+			}
+		}
+		return this.columnarCache != null;
+	}
+
 	/**
 	 * 出力済みファイルリストを取得する。<br>
 	 * @return outputFilePathList
@@ -787,6 +1254,28 @@ public class CsvFileUtility {
 		this.outputFilePathList = outputFilePathList;
 	}
 
+	/**
+	 * XLSX出力時に共有文字列テーブルを使用するか設定する。<br>
+	 * 重複する値が多い場合はファイルサイズが小さくなるが、異なり値をメモリに保持する。
+	 * 最初の行を書き込む前に呼び出すこと。
+	 * @param xlsxSharedStringsFlg true:共有文字列／false:インライン文字列
+	 */
+	public void setXlsxSharedStrings(boolean xlsxSharedStringsFlg) {
+		this.xlsxSharedStringsFlg = xlsxSharedStringsFlg;
+		if (this.xlsxWriter != null) {
+			this.xlsxWriter.setSharedStrings(xlsxSharedStringsFlg);
+		}
+	}
+
+	/**
+	 * 圧縮後サイズでファイル分割するかを設定する。<br>
+	 * 圧縮出力（拡張子".gz"）の場合のみ有効。falseの場合は圧縮前のサイズで分割する。
+	 * @param compressedSizeLimitFlg true:圧縮後サイズ／false:圧縮前サイズ
+	 */
+	public void setCompressedSizeLimit(boolean compressedSizeLimitFlg) {
+		this.compressedSizeLimitFlg = compressedSizeLimitFlg;
+	}
+
 	/**
 	 * CSVファイルの「"」の数をチェックする。<br>
 	 * ＊返却するエラーメッセージは、１行ごとにリストに格納され、１行ごとのリストには以下の順番に設定する。
@@ -857,10 +1346,97 @@ public class CsvFileUtility {
 		boolean isChangeNextFile = false;
 
 		if (this.readLine + 1 > this.prop.getMaxLine()
-				|| (this.byteSizeAmt + data.getBytes().length) > this.prop.getMaxFileSize()) {
+				|| (this.getOutputSize() + this.getByteLength(data)) > this.prop.getMaxFileSize()) {
+			isChangeNextFile = true;
+		}
+
+		return isChangeNextFile;
+	}
+
+	/**
+	 * 引数の行をファイルに出力する際にファイルを分割するかチェックする。<br>
+	 * <br>
+	 * XLSX出力の場合は、行数のみ（シートの最大行数を上限とする）をチェックする。
+	 * @param rowData 出力行
+	 * @return true:対象行を新規ファイルに出力する／false:対象行を現在書き込み中のファイルに出力する
+	 */
+	public boolean isWriteNextFile(ArrayList<String> rowData) {
+
+		if (this.xlsxWriter == null) {
+			return this.isWriteNextFile(toCsvLine(rowData));
+		}
+
+		boolean isChangeNextFile = false;
+
+		if (this.readLine + 1 > Math.min(this.prop.getMaxLine(), XlsxStreamWriter.MAX_ROWS)) {
 			isChangeNextFile = true;
 		}
 
 		return isChangeNextFile;
 	}
+
+	/**
+	 * 項目リストをCSV形式の１行に変換する。<br>
+	 * カンマ・ダブルクォーテーション・改行を含む項目はダブルクォーテーションで囲む。
+	 * @param rowData 一行分のデータ
+	 * @return CSV形式の１行（改行コード付き）
+	 */
+	private static String toCsvLine(ArrayList<String> rowData) {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < rowData.size(); i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			String value = Objects.toString(rowData.get(i), "");
+			if (value.indexOf(',') >= 0 || value.indexOf('\"') >= 0 || value.indexOf('\n') >= 0
+					|| value.indexOf('\r') >= 0) {
+				line.append('\"').append(value.replace("\"", "\"\"")).append('\"');
+			} else {
+				line.append(value);
+			}
+		}
+		line.append(LINE_SEPARATOR);
+		return line.toString();
+	}
+
+	/**
+	 * CSV形式の１行を項目リストに分割する。<br>
+	 * 末尾の改行コードは除去し、ダブルクォーテーションで囲まれた項目はカンマ・改行を含めて１項目とする。
+	 * @param data CSV形式の１行
+	 * @return 項目リスト
+	 */
+	private static ArrayList<String> splitCsvLine(String data) {
+		ArrayList<String> rowData = new ArrayList<String>();
+		String line = Objects.toString(data, "");
+		int length = line.length();
+		while (length > 0 && (line.charAt(length - 1) == '\n' || line.charAt(length - 1) == '\r')) {
+			length--;
+		}
+		StringBuilder value = new StringBuilder();
+		boolean inQuote = false;
+		for (int i = 0; i < length; i++) {
+			char c = line.charAt(i);
+			if (inQuote) {
+				if (c == '\"') {
+					if (i + 1 < length && line.charAt(i + 1) == '\"') {
+						value.append(c);
+						i++;
+					} else {
+						inQuote = false;
+					}
+				} else {
+					value.append(c);
+				}
+			} else if (c == '\"') {
+				inQuote = true;
+			} else if (c == ',') {
+				rowData.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		rowData.add(value.toString());
+		return rowData;
+	}
 }
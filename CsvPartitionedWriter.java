@@ -0,0 +1,446 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	CsvPartitionedWriter.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		文字コード省略時の既定値・書き込みエラーの通知対応
+ *	2026/10/19	agent		レコードのコピー・出力ファイル名の重複チェック対応
+ *
+ */
+package utility;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * CSVパーティション出力クラス。<br>
+ * <br>
+ * キー項目の値、キー項目のハッシュ値、または任意の振り分け処理によってレコードをパーティションに振り分け、
+ * パーティションごとのファイルに出力する。<br>
+ * パーティションごとにレコードをバッファし、バッファが一杯になったら少数の出力スレッドで書き込む。
+ * 同じパーティションへの書き込みは常に１スレッドずつ、振り分けた順に行う。<br>
+ * 各パーティションのファイルは{@link CsvFileUtility}で出力するため、
+ * 最大行数・最大ファイルサイズによるファイル分割と連番の付与は通常の出力と同じに行われる。<br>
+ * <br>
+ * 出力ファイル名は、指定したファイルパスの拡張子の前に「_パーティション名」を付与したものとなる。
+ * <pre>
+ * 	<code>/tmp/out.csv → /tmp/out_1001.csv, /tmp/out_1002.csv, ...（分割時は /tmp/out_1001_001.csv, /tmp/out_1001_002.csv, ...）</code>
+ * </pre>
+ * 異なるパーティション名が同じ出力ファイル名（大文字・小文字の違いのみを含む）になる場合はエラーとする。
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class CsvPartitionedWriter {
+
+	/*
+	 * デフォルトのバッファサイズ（レコード数）
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+	/*
+	 * デフォルトの出力スレッド数
+	 */
+	public static final int DEFAULT_THREAD_COUNT = 2;
+
+	/*
+	 * ファイル名に使用できない文字
+	 */
+	private static final String INVALID_FILE_NAME_CHARS = "\\/:*?\"<>|";
+
+	/**
+	 * パーティション振り分け処理<br>
+	 * <br>
+	 * 呼び出し元のスレッドからのみ呼び出される。
+	 */
+	public interface Partitioner {
+
+		/**
+		 * パーティション名の取得<br>
+		 * @param record 一行分のデータ
+		 * @return パーティション名（出力ファイル名に付与する）
+		 */
+		String partition(ArrayList<String> record);
+	}
+
+	/*
+	 * パーティション
+	 */
+	private class Partition {
+
+		/*
+		 * 出力用のCsvFileUtility
+		 */
+		private final CsvFileUtility writer;
+
+		/*
+		 * 書き込み待ちのバッファ（振り分け順）
+		 */
+		private final ConcurrentLinkedQueue<ArrayList<ArrayList<String>>> pending =
+				new ConcurrentLinkedQueue<ArrayList<ArrayList<String>>>();
+
+		/*
+		 * 書き込み処理の実行中フラグ
+		 */
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+		/*
+		 * 振り分け中のバッファ
+		 */
+		private ArrayList<ArrayList<String>> buffer = new ArrayList<ArrayList<String>>(bufferSize);
+
+		Partition(String partitionFilePath) throws IOException {
+			if (charsetName == null || "".equals(charsetName)) {
+				this.writer = new CsvFileUtility(partitionFilePath, false);
+			} else {
+				this.writer = new CsvFileUtility(partitionFilePath, false, charsetName);
+			}
+			// CsvFileUtilityはオープン失敗を例外で返さないため、ここで確認する
+			if (!this.writer.isWritable()) {
+				throw new IOException("出力ファイルを作成できません。:" + partitionFilePath);
+			}
+		}
+
+		/**
+		 * レコードの追加（呼び出し元スレッド）<br>
+		 * <br>
+		 * 呼び出し元が同じリストを再利用できるよう、コピーしてバッファする。
+		 */
+		void add(ArrayList<String> record) throws IOException {
+			this.buffer.add(new ArrayList<String>(record));
+			if (this.buffer.size() >= bufferSize) {
+				this.submit();
+			}
+		}
+
+		/**
+		 * 振り分け中のバッファを書き込み待ちにする（呼び出し元スレッド）<br>
+		 */
+		void submit() throws IOException {
+			if (this.buffer.isEmpty()) {
+				return;
+			}
+			try {
+				while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+					checkFailure();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("パーティション出力が中断されました。", e);
+			}
+			this.pending.offer(this.buffer);
+			this.buffer = new ArrayList<ArrayList<String>>(bufferSize);
+			if (this.scheduled.compareAndSet(false, true)) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						drain();
+					}
+				});
+			}
+		}
+
+		/**
+		 * 書き込み待ちのバッファを順に書き込む（出力スレッド）<br>
+		 */
+		void drain() {
+			while (true) {
+				ArrayList<ArrayList<String>> records = this.pending.poll();
+				if (records == null) {
+					this.scheduled.set(false);
+					// 終了直前に追加されたバッファは自スレッドで引き続き書き込む
+					if (this.pending.isEmpty() || !this.scheduled.compareAndSet(false, true)) {
+						return;
+					}
+					continue;
+				}
+				try {
+					if (failure.get() == null) {
+						for (ArrayList<String> record : records) {
+							this.writer.writeRecord(record);
+						}
+					}
+				} catch (Throwable e) {
+					// Errorを含めて記録し、書き込み待ちのバッファの処理を続ける（エラー後は書き込まずに破棄する）
+					failure.compareAndSet(null, e);
+				} finally {
+					inFlight.release();
+				}
+			}
+		}
+	}
+
+	/*
+	 * 出力ファイルパス
+	 */
+	private final String filePath;
+
+	/*
+	 * サポートするcharset名前
+	 */
+	private final String charsetName;
+
+	/*
+	 * パーティション振り分け処理
+	 */
+	private final Partitioner partitioner;
+
+	/*
+	 * バッファサイズ（レコード数）
+	 */
+	private final int bufferSize;
+
+	/*
+	 * 出力スレッド
+	 */
+	private final ExecutorService executor;
+
+	/*
+	 * 書き込み待ちバッファ数の上限
+	 */
+	private final Semaphore inFlight;
+
+	/*
+	 * パーティション名ごとのパーティション
+	 */
+	private final HashMap<String, Partition> partitionMap = new HashMap<String, Partition>();
+
+	/*
+	 * 出力ファイルパス（大文字に変換）ごとのパーティション名
+	 */
+	private final HashMap<String, String> partitionNameMap = new HashMap<String, String>();
+
+	/*
+	 * 出力スレッドで発生したエラー
+	 */
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	/*
+	 * クローズ済みフラグ
+	 */
+	private boolean closed = false;
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param filePath ファイルパス
+	 * @param charsetName サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @param partitioner パーティション振り分け処理
+	 */
+	public CsvPartitionedWriter(String filePath, String charsetName, Partitioner partitioner) {
+		this(filePath, charsetName, partitioner, DEFAULT_THREAD_COUNT, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param filePath ファイルパス
+	 * @param charsetName サポートするcharset名前（空文字の場合はwindows-31j）
+	 * @param partitioner パーティション振り分け処理
+	 * @param threadCount 出力スレッド数
+	 * @param bufferSize パーティションごとのバッファサイズ（レコード数）
+	 */
+	public CsvPartitionedWriter(String filePath, String charsetName, Partitioner partitioner,
+			int threadCount, int bufferSize) {
+		this.filePath = filePath;
+		this.charsetName = charsetName;
+		this.partitioner = partitioner;
+		this.bufferSize = Math.max(1, bufferSize);
+		int threads = Math.max(1, threadCount);
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.inFlight = new Semaphore(threads * 4);
+	}
+
+	/**
+	 * キー項目の値で振り分ける処理を取得する。<br>
+	 * <br>
+	 * キー項目の値をパーティション名とする。ファイル名に使用できない文字は"_"に置き換える。
+	 * @param keyColumn キー項目の位置（0始まり）
+	 * @return パーティション振り分け処理
+	 */
+	public static Partitioner byKeyColumn(final int keyColumn) {
+		return new Partitioner() {
+			@Override
+			public String partition(ArrayList<String> record) {
+				return keyColumn < record.size() ? record.get(keyColumn) : "";
+			}
+		};
+	}
+
+	/**
+	 * キー項目のハッシュ値で振り分ける処理を取得する。<br>
+	 * <br>
+	 * キー項目のハッシュ値をパーティション数で割った余りを、パーティション数の桁数で0埋めしてパーティション名とする。
+	 * @param keyColumn キー項目の位置（0始まり）
+	 * @param partitionCount パーティション数
+	 * @return パーティション振り分け処理
+	 */
+	public static Partitioner byHash(final int keyColumn, int partitionCount) {
+		final int count = Math.max(1, partitionCount);
+		final String format = "%0" + String.valueOf(count - 1).length() + "d";
+		return new Partitioner() {
+			@Override
+			public String partition(ArrayList<String> record) {
+				String key = keyColumn < record.size() ? record.get(keyColumn) : "";
+				return String.format(format, Integer.valueOf(Math.floorMod(key.hashCode(), count)));
+			}
+		};
+	}
+
+	/**
+	 * CSVファイル書き込み処理<br>
+	 * <br>
+	 * レコードをパーティションに振り分けて書き込む。
+	 * 実際の書き込みはパーティションのバッファが一杯になった時点で出力スレッドが行う。<br>
+	 * レコードはコピーしてバッファするため、呼び出し元は渡したリストを再利用できる。
+	 * @param rowData 一行分のデータ
+	 * @exception IOException 出力ファイルを作成できない場合、異なるパーティション名が同じ出力ファイル名になる場合、
+	 * または出力スレッドで書き込みエラーが発生した場合
+	 */
+	public void writeFileLine(ArrayList<String> rowData) throws IOException {
+		if (this.closed) {
+			throw new IOException("パーティション出力はクローズされています。");
+		}
+		this.checkFailure();
+		String partitionName = this.partitioner.partition(rowData);
+		if (partitionName == null) {
+			partitionName = "";
+		}
+		Partition partition = this.partitionMap.get(partitionName);
+		if (partition == null) {
+			String partitionFilePath = this.getPartitionFilePath(toFileNamePart(partitionName));
+			// 置き換え後の名前や大文字・小文字の違いのみで同じファイルになる場合は、混在させずにエラーとする
+			String fileKey = partitionFilePath.toUpperCase(Locale.ROOT);
+			String usedName = this.partitionNameMap.get(fileKey);
+			if (usedName != null) {
+				throw new IOException("パーティション名「" + partitionName + "」と「" + usedName
+						+ "」の出力ファイル名が重複しています。:" + partitionFilePath);
+			}
+			partition = new Partition(partitionFilePath);
+			this.partitionMap.put(partitionName, partition);
+			this.partitionNameMap.put(fileKey, partitionName);
+		}
+		partition.add(rowData);
+	}
+
+	/**
+	 * ファイル書き込み終了処理<br>
+	 * <br>
+	 * 残りのバッファを書き込み、全パーティションのファイルをクローズする。
+	 * @exception IOException 書き込み・書き込み反映・クローズ時の入出力エラー
+	 */
+	public void writeClose() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			for (Partition partition : this.partitionMap.values()) {
+				partition.submit();
+			}
+		} finally {
+			this.executor.shutdown();
+			try {
+				while (!this.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					// 書き込み完了まで待つ
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.failure.compareAndSet(null, e);
+			}
+			for (Partition partition : this.partitionMap.values()) {
+				try {
+					partition.writer.closeWriter();
+				} catch (IOException e) {
+					// ディスク容量不足等は書き込み反映時に発生するため、クローズのエラーも返却する
+					this.failure.compareAndSet(null, e);
+				}
+			}
+		}
+		this.checkFailure();
+	}
+
+	/**
+	 * 出力済みファイルリストを取得する。<br>
+	 * <br>
+	 * 全パーティションの出力ファイルパスを、パーティション名順に返却する。
+	 * @return 出力済みファイルリスト
+	 */
+	public ArrayList<String> getOutputFilePathList() {
+		ArrayList<String> outputFilePathList = new ArrayList<String>();
+		for (Partition partition : new TreeMap<String, Partition>(this.partitionMap).values()) {
+			outputFilePathList.addAll(partition.writer.getOutputFilePathList());
+		}
+		return outputFilePathList;
+	}
+
+	/**
+	 * パーティション数を取得する。<br>
+	 * @return パーティション数
+	 */
+	public int getPartitionCount() {
+		return this.partitionMap.size();
+	}
+
+	/**
+	 * パーティションのファイルパスを取得する。<br>
+	 * @param partitionName パーティション名
+	 * @return 拡張子の前にパーティション名を付与したファイルパス
+	 */
+	private String getPartitionFilePath(String partitionName) {
+		int extensionIndex = CsvFileUtility.getExtensionIndex(this.filePath);
+		if (extensionIndex == -1) {
+			return this.filePath + "_" + partitionName;
+		}
+		return this.filePath.substring(0, extensionIndex) + "_" + partitionName
+				+ this.filePath.substring(extensionIndex);
+	}
+
+	/**
+	 * 出力スレッドで発生したエラーを返却する。<br>
+	 */
+	private void checkFailure() throws IOException {
+		Throwable e = this.failure.get();
+		if (e instanceof IOException) {
+			throw (IOException) e;
+		}
+		if (e != null) {
+			throw new IOException("パーティションの書き込みに失敗しました。", e);
+		}
+	}
+
+	/**
+	 * パーティション名をファイル名に使用できる文字列に変換する。<br>
+	 * @param partitionName パーティション名
+	 * @return ファイル名に使用できない文字・制御文字を"_"に置き換えた文字列
+	 */
+	private static String toFileNamePart(String partitionName) {
+		if (partitionName == null || partitionName.isEmpty()) {
+			return "_";
+		}
+		StringBuilder sb = new StringBuilder(partitionName.length());
+		for (int i = 0; i < partitionName.length(); i++) {
+			char c = partitionName.charAt(i);
+			sb.append(c < 0x20 || INVALID_FILE_NAME_CHARS.indexOf(c) >= 0 ? '_' : c);
+		}
+		String name = sb.toString();
+		if (name.equals(".") || name.equals("..")) {
+			return name.replace('.', '_');
+		}
+		return name;
+	}
+}
@@ -0,0 +1,400 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	CsvRecordDispatcher.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		エラー時の停止・待機処理の見直し
+ *	2026/10/19	agent		割り込み時の中断対応
+ *
+ */
+package utility;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * CSVレコード振り分けクラス。<br>
+ * <br>
+ * １つの読み込みスレッドで{@link CsvFileUtility}からレコードを読み込んでバッチにまとめ、
+ * キューを介して複数のワーカースレッドに振り分ける。<br>
+ * ワーカーの処理結果は呼び出し元のスレッドで結果ハンドラに渡す。順序保証ありの場合は元のレコード順に並べ直す。<br>
+ * 処理待ちのワーカー・呼び出し元スレッドは、バッチが渡されるまでCPUを使用せずに待機する。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>ワーカー数・バッチサイズの指定</li>
+ * <li>結果の順序保証（読み込み順）の有無の指定</li>
+ * <li>処理中バッチ数の上限による読み込みの抑止（メモリ使用量の上限）</li>
+ * </ul>
+ * @param <R> 処理結果の型
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class CsvRecordDispatcher<R> {
+
+	/*
+	 * 読み込み抑止中に中断有無を確認する間隔（ミリ秒）
+	 */
+	private static final long ABORT_CHECK_MILLIS = 100;
+
+	/*
+	 * 読み込み元
+	 */
+	private final CsvFileUtility reader;
+
+	/*
+	 * ワーカー数
+	 */
+	private final int workerCount;
+
+	/*
+	 * バッチサイズ（レコード数）
+	 */
+	private final int batchSize;
+
+	/*
+	 * 順序保証フラグ
+	 */
+	private final boolean orderedFlg;
+
+	/**
+	 * レコード処理ワーカー<br>
+	 * <br>
+	 * 複数スレッドから同時に呼び出される。
+	 * @param <R> 処理結果の型
+	 */
+	public interface RecordWorker<R> {
+
+		/**
+		 * １レコード分の処理<br>
+		 * @param record 一行分のデータ
+		 * @return 処理結果（nullの場合は結果ハンドラに渡さない）
+		 * @exception Exception 処理エラー（振り分けを中断する）
+		 */
+		R process(ArrayList<String> record) throws Exception;
+	}
+
+	/**
+	 * 処理結果ハンドラ<br>
+	 * <br>
+	 * 呼び出し元のスレッドからのみ呼び出される。
+	 * @param <R> 処理結果の型
+	 */
+	public interface ResultHandler<R> {
+
+		/**
+		 * 処理結果の通知<br>
+		 * @param result 処理結果
+		 * @exception Exception 処理エラー（振り分けを中断する）
+		 */
+		void handle(R result) throws Exception;
+	}
+
+	/*
+	 * バッチ
+	 */
+	private static class Batch<R> {
+		private final long sequence;
+		private final ArrayList<ArrayList<String>> records;
+		private ArrayList<R> results;
+
+		Batch(long sequence, ArrayList<ArrayList<String>> records) {
+			this.sequence = sequence;
+			this.records = records;
+		}
+	}
+
+	/*
+	 * １回の振り分け処理の状態
+	 */
+	private class Run {
+
+		private final RecordWorker<R> worker;
+		private final Thread collectorThread = Thread.currentThread();
+
+		/*
+		 * 処理待ちバッチ（ワーカーは取得できるまで待機する）
+		 */
+		private final LinkedBlockingQueue<Batch<R>> inputQueue = new LinkedBlockingQueue<Batch<R>>();
+
+		/*
+		 * 入力終了を表すバッチ（ワーカー数分投入する）
+		 */
+		private final Batch<R> endOfInput = new Batch<R>(-1, null);
+
+		/*
+		 * 処理済みバッチ（順序保証なし）
+		 */
+		private final ConcurrentLinkedQueue<Batch<R>> outputQueue = new ConcurrentLinkedQueue<Batch<R>>();
+
+		/*
+		 * 処理済みバッチ（順序保証あり、連番ごと）
+		 */
+		private final ConcurrentHashMap<Long, Batch<R>> outputMap = new ConcurrentHashMap<Long, Batch<R>>();
+
+		/*
+		 * 処理中バッチ数の上限
+		 */
+		private final Semaphore inFlight = new Semaphore(workerCount * 4);
+
+		/*
+		 * 読み込んだバッチ数（読み込み終了まで-1）
+		 */
+		private final AtomicLong totalBatches = new AtomicLong(-1);
+
+		/*
+		 * 読み込んだレコード数
+		 */
+		private final AtomicLong totalRecords = new AtomicLong();
+
+		/*
+		 * 発生したエラー
+		 */
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Run(RecordWorker<R> worker) {
+			this.worker = worker;
+		}
+
+		boolean isAborted() {
+			return this.failure.get() != null;
+		}
+
+		void fail(Throwable e) {
+			if (this.failure.compareAndSet(null, e)) {
+				// 待機中のワーカーを終了させる
+				this.endInput();
+			}
+			LockSupport.unpark(this.collectorThread);
+		}
+
+		/**
+		 * 入力終了の通知<br>
+		 * <br>
+		 * 全ワーカーが受け取れるよう、入力終了を表すバッチをワーカー数分投入する。
+		 */
+		private void endInput() {
+			for (int i = 0; i < workerCount; i++) {
+				this.inputQueue.offer(this.endOfInput);
+			}
+		}
+
+		/**
+		 * 読み込み処理（読み込みスレッド）<br>
+		 */
+		void read() {
+			long sequence = 0;
+			try {
+				ArrayList<ArrayList<String>> records = new ArrayList<ArrayList<String>>(batchSize);
+				ArrayList<String> record;
+				while (!this.isAborted() && (record = reader.readRecord()) != null) {
+					records.add(record);
+					this.totalRecords.incrementAndGet();
+					if (records.size() == batchSize) {
+						if (!this.enqueue(new Batch<R>(sequence++, records))) {
+							return;
+						}
+						records = new ArrayList<ArrayList<String>>(batchSize);
+					}
+				}
+				if (!records.isEmpty() && !this.enqueue(new Batch<R>(sequence++, records))) {
+					return;
+				}
+			} catch (Throwable e) {
+				// Errorも通知しないと、呼び出し元スレッドが待機したままとなる
+				this.fail(e);
+				return;
+			}
+			this.totalBatches.set(sequence);
+			this.endInput();
+			LockSupport.unpark(this.collectorThread);
+		}
+
+		private boolean enqueue(Batch<R> batch) {
+			try {
+				while (!this.inFlight.tryAcquire(ABORT_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+					if (this.isAborted()) {
+						return false;
+					}
+				}
+			} catch (InterruptedException e) {
+				this.fail(e);
+				return false;
+			}
+			this.inputQueue.offer(batch);
+			return true;
+		}
+
+		/**
+		 * レコード処理（ワーカースレッド）<br>
+		 */
+		void work() {
+			while (true) {
+				Batch<R> batch;
+				try {
+					batch = this.inputQueue.take();
+				} catch (InterruptedException e) {
+					this.fail(e);
+					return;
+				}
+				if (batch == this.endOfInput || this.isAborted()) {
+					return;
+				}
+				ArrayList<R> results = new ArrayList<R>(batch.records.size());
+				try {
+					for (ArrayList<String> record : batch.records) {
+						R result = this.worker.process(record);
+						if (result != null) {
+							results.add(result);
+						}
+					}
+				} catch (Throwable e) {
+					// Errorも通知しないと、呼び出し元スレッドが待機したままとなる
+					this.fail(e);
+					return;
+				}
+				batch.results = results;
+				if (orderedFlg) {
+					this.outputMap.put(Long.valueOf(batch.sequence), batch);
+				} else {
+					this.outputQueue.offer(batch);
+				}
+				LockSupport.unpark(this.collectorThread);
+			}
+		}
+
+		/**
+		 * 結果の受け取り（呼び出し元スレッド）<br>
+		 */
+		void collect(ResultHandler<R> resultHandler) {
+			long emitted = 0;
+			while (!this.isAborted()) {
+				long total = this.totalBatches.get();
+				if (total >= 0 && emitted == total) {
+					return;
+				}
+				Batch<R> batch;
+				if (orderedFlg) {
+					batch = this.outputMap.remove(Long.valueOf(emitted));
+				} else {
+					batch = this.outputQueue.poll();
+				}
+				if (batch == null) {
+					// ワーカー・読み込みスレッドからの通知まで待機する
+					LockSupport.park(this);
+					// 割り込み中はparkがすぐに戻るため、待機を続けずに中断する（割り込み状態は呼び出し元に残す）
+					if (Thread.currentThread().isInterrupted()) {
+						this.fail(new InterruptedException("レコードの振り分け処理が割り込まれました。"));
+						return;
+					}
+					continue;
+				}
+				try {
+					if (resultHandler != null) {
+						for (R result : batch.results) {
+							resultHandler.handle(result);
+						}
+					}
+				} catch (Throwable e) {
+					this.fail(e);
+					return;
+				}
+				emitted++;
+				this.inFlight.release();
+			}
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param reader 読み込み用のCsvFileUtility
+	 * @param workerCount ワーカー数
+	 * @param batchSize バッチサイズ（レコード数）
+	 * @param orderedFlg true:結果を読み込み順に渡す／false:処理が終わった順に渡す
+	 */
+	public CsvRecordDispatcher(CsvFileUtility reader, int workerCount, int batchSize, boolean orderedFlg) {
+		this.reader = reader;
+		this.workerCount = Math.max(1, workerCount);
+		this.batchSize = Math.max(1, batchSize);
+		this.orderedFlg = orderedFlg;
+	}
+
+	/**
+	 * 振り分け処理<br>
+	 * <br>
+	 * 全レコードを処理し、結果ハンドラへの通知が終わるまで待つ。
+	 * エラーが発生した場合は、残りの処理を中断してエラーを返却する。
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>long count = dispatcher.dispatch(worker, result -&gt; writer.writeFileLine(result));</code>
+	 * </pre>
+	 * @param worker レコード処理ワーカー
+	 * @param resultHandler 処理結果ハンドラ（nullの場合は結果を破棄する）
+	 * @return 読み込んだレコード数
+	 * @exception IOException ワーカー・結果ハンドラ・読み込みのエラー（Errorはそのまま返却する）
+	 */
+	public long dispatch(RecordWorker<R> worker, ResultHandler<R> resultHandler) throws IOException {
+		final Run run = new Run(worker);
+
+		Thread readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				run.read();
+			}
+		}, "csv-dispatch-reader");
+		readerThread.setDaemon(true);
+
+		Thread[] workerThreads = new Thread[this.workerCount];
+		for (int i = 0; i < workerThreads.length; i++) {
+			workerThreads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					run.work();
+				}
+			}, "csv-dispatch-worker-" + i);
+			workerThreads[i].setDaemon(true);
+		}
+
+		readerThread.start();
+		for (Thread workerThread : workerThreads) {
+			workerThread.start();
+		}
+		run.collect(resultHandler);
+
+		try {
+			readerThread.join();
+			for (Thread workerThread : workerThreads) {
+				workerThread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			run.fail(e);
+		}
+
+		Throwable failure = run.failure.get();
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		}
+		if (failure != null) {
+			throw new IOException("レコードの振り分け処理に失敗しました。", failure);
+		}
+		return run.totalRecords.get();
+	}
+}
@@ -0,0 +1,340 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	ParallelGzipOutputStream.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		圧縮スレッドプールの共有化
+ *
+ */
+package utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*
+ * 並列gzip圧縮出力ストリームクラス。<br>
+ * <br>
+ * 書き込まれたデータを固定サイズのブロックに分割し、ブロックごとに複数スレッドで圧縮する。<br>
+ * 各ブロックは独立したgzipメンバとして出力順に書き込むため、出力ファイルは
+ * 通常のgzip（マルチメンバ形式）として{@link java.util.zip.GZIPInputStream}やgzipコマンドで展開できる。<br>
+ * <br>
+ * 圧縮スレッドは全ストリームで共有するデーモンスレッドのプールを使用する。
+ * プールのスレッド数は、システムプロパティ utility.gzip.threadCount で変更できる（デフォルトはCPU数）。
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+	/*
+	 * ブロックサイズ（デフォルト）
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+	/*
+	 * gzipヘッダ（圧縮方式:deflate、フラグ・更新日時なし）
+	 */
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+	/*
+	 * 圧縮用スレッドプールのスレッド数
+	 */
+	public static final int POOL_THREAD_COUNT = Math.max(1,
+			Integer.getInteger("utility.gzip.threadCount", Runtime.getRuntime().availableProcessors()).intValue());
+
+	/*
+	 * 圧縮用スレッドプール（全ストリームで共有）
+	 */
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(POOL_THREAD_COUNT,
+			new ThreadFactory() {
+				private final AtomicInteger threadNo = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "parallel-gzip-" + this.threadNo.incrementAndGet());
+					// クローズされないストリームがあってもJVMの終了を妨げない
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/*
+	 * 圧縮待ちブロックの上限数
+	 */
+	private final int maxPendingBlocks;
+
+	/*
+	 * 圧縮レベル
+	 */
+	private final int level;
+
+	/*
+	 * 圧縮中ブロック（出力順）
+	 */
+	private final ArrayDeque<Future<CompressedBlock>> pendingBlocks = new ArrayDeque<Future<CompressedBlock>>();
+
+	/*
+	 * 書き込み中ブロック
+	 */
+	private byte[] block;
+
+	/*
+	 * 書き込み中ブロックの使用バイト数
+	 */
+	private int blockLength = 0;
+
+	/*
+	 * 出力済み圧縮バイト数
+	 */
+	private long compressedSize = 0;
+
+	/*
+	 * 出力済みブロックの非圧縮バイト数
+	 */
+	private long compressedInputSize = 0;
+
+	/*
+	 * メンバ出力有無
+	 */
+	private boolean memberWritten = false;
+
+	/*
+	 * クローズ済みフラグ
+	 */
+	private boolean closed = false;
+
+	/*
+	 * 圧縮済みブロック
+	 */
+	private static class CompressedBlock {
+		private final byte[] data;
+		private final int inputSize;
+
+		CompressedBlock(byte[] data, int inputSize) {
+			this.data = data;
+			this.inputSize = inputSize;
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <b>共有プールの全スレッドで、デフォルトブロックサイズ・圧縮レベルで圧縮する。</b><br>
+	 * <br>
+	 * @param out 出力先ストリーム
+	 */
+	public ParallelGzipOutputStream(OutputStream out) {
+		this(out, POOL_THREAD_COUNT, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param out 出力先ストリーム
+	 * @param threadCount 並列に圧縮するブロック数の目安（共有プールのスレッド数が上限）
+	 * @param blockSize ブロックサイズ（バイト）
+	 * @param level 圧縮レベル
+	 */
+	public ParallelGzipOutputStream(OutputStream out, int threadCount, int blockSize, int level) {
+		super(out);
+		int threads = Math.min(Math.max(1, threadCount), POOL_THREAD_COUNT);
+		this.maxPendingBlocks = threads * 2;
+		this.level = level;
+		this.block = new byte[Math.max(1024, blockSize)];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		this.ensureOpen();
+		this.block[this.blockLength++] = (byte) b;
+		if (this.blockLength == this.block.length) {
+			this.submitBlock();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		this.ensureOpen();
+		while (len > 0) {
+			int copyLength = Math.min(len, this.block.length - this.blockLength);
+			System.arraycopy(b, off, this.block, this.blockLength, copyLength);
+			this.blockLength += copyLength;
+			off += copyLength;
+			len -= copyLength;
+			if (this.blockLength == this.block.length) {
+				this.submitBlock();
+			}
+		}
+	}
+
+	/**
+	 * 圧縮済みブロックの書き込み反映処理<br>
+	 * <br>
+	 * 圧縮率を落とさないよう、書き込み中ブロックは区切らない。
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.ensureOpen();
+		this.writeCompletedBlocks(false);
+		this.out.flush();
+	}
+
+	/**
+	 * ストリーム終了処理<br>
+	 * <br>
+	 * 残りのブロックをすべて圧縮・出力してから出力先ストリームを閉じる。
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			if (this.blockLength > 0 || !this.memberWritten && this.pendingBlocks.isEmpty()) {
+				// 空ファイルでも有効なgzipとなるよう、最低１メンバを出力する
+				this.submitBlock();
+			}
+			this.writeCompletedBlocks(true);
+			this.out.flush();
+		} finally {
+			this.closed = true;
+			// エラー時に残った圧縮タスクは破棄する
+			Future<CompressedBlock> future;
+			while ((future = this.pendingBlocks.poll()) != null) {
+				future.cancel(false);
+			}
+			this.out.close();
+		}
+	}
+
+	/**
+	 * 出力済み圧縮バイト数を取得する。<br>
+	 * @return compressedSize
+	 */
+	public long getCompressedSize() {
+		return compressedSize;
+	}
+
+	/**
+	 * 出力済みブロックの非圧縮バイト数を取得する。<br>
+	 * 圧縮待ち・書き込み中のデータは含まない。
+	 * @return compressedInputSize
+	 */
+	public long getCompressedInputSize() {
+		return compressedInputSize;
+	}
+
+	/**
+	 * 書き込み中ブロックを圧縮タスクとして登録する。<br>
+	 * 圧縮待ちブロックが上限に達している場合は、先頭ブロックの出力を待つ。
+	 */
+	private void submitBlock() throws IOException {
+		final byte[] data = this.block;
+		final int length = this.blockLength;
+		this.pendingBlocks.add(EXECUTOR.submit(new Callable<CompressedBlock>() {
+			@Override
+			public CompressedBlock call() {
+				return compress(data, length, level);
+			}
+		}));
+		this.block = new byte[data.length];
+		this.blockLength = 0;
+
+		while (this.pendingBlocks.size() >= this.maxPendingBlocks) {
+			this.writeBlock(this.pendingBlocks.poll());
+		}
+		this.writeCompletedBlocks(false);
+	}
+
+	/**
+	 * 圧縮済みブロックを出力順に書き込む。<br>
+	 * @param waitFlg true:すべて完了するまで待つ／false:先頭から完了済みのもののみ
+	 */
+	private void writeCompletedBlocks(boolean waitFlg) throws IOException {
+		while (!this.pendingBlocks.isEmpty() && (waitFlg || this.pendingBlocks.peek().isDone())) {
+			this.writeBlock(this.pendingBlocks.poll());
+		}
+	}
+
+	/**
+	 * 圧縮済みブロックの書き込み<br>
+	 * @param future 圧縮タスク
+	 */
+	private void writeBlock(Future<CompressedBlock> future) throws IOException {
+		CompressedBlock compressed;
+		try {
+			compressed = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("gzip圧縮が中断されました。");
+		} catch (ExecutionException e) {
+			throw new IOException("gzip圧縮に失敗しました。", e.getCause());
+		}
+		this.out.write(compressed.data);
+		this.compressedSize += compressed.data.length;
+		this.compressedInputSize += compressed.inputSize;
+		this.memberWritten = true;
+	}
+
+	/**
+	 * １ブロックを１gzipメンバに圧縮する。<br>
+	 * @param data データ
+	 * @param length データ長
+	 * @param level 圧縮レベル
+	 * @return 圧縮済みブロック（ヘッダ・トレーラを含む）
+	 */
+	private static CompressedBlock compress(byte[] data, int length, int level) {
+		ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + 64);
+		member.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+
+		Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] buf = new byte[Math.max(512, length / 2)];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(buf);
+				member.write(buf, 0, n);
+			}
+		} finally {
+			deflater.end();
+		}
+
+		// トレーラ（CRC32・非圧縮サイズ、リトルエンディアン）
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		writeIntLE(member, (int) crc.getValue());
+		writeIntLE(member, length);
+
+		return new CompressedBlock(member.toByteArray(), length);
+	}
+
+	private static void writeIntLE(ByteArrayOutputStream out, int value) {
+		out.write(value & 0xff);
+		out.write((value >>> 8) & 0xff);
+		out.write((value >>> 16) & 0xff);
+		out.write((value >>> 24) & 0xff);
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("ストリームはクローズされています。");
+		}
+	}
+}
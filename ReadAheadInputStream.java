@@ -0,0 +1,387 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	ReadAheadInputStream.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *	2026/10/19	agent		残りバイト数の返却・バッファ使用量の上限対応
+ *
+ */
+package utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/*
+ * 先読み入力ストリームクラス。<br>
+ * <br>
+ * バックグラウンドスレッドでファイルを大きなブロック単位に先読みし、
+ * 呼び出し元が前のブロックを解析している間に次のブロックの読み込みを行う。<br>
+ * ブロック用のダイレクトバッファはプールし、ファイルをまたいで再利用する。<br>
+ * 同時に先読みできるファイル数は、全ファイルのバッファの合計が上限を超えない数に制限する。
+ * 上限に達している場合、{@link #tryOpen(String)}はnullを返却するため、呼び出し元は通常の読み込みを行う。<br>
+ * <br>
+ * 以下のシステムプロパティで動作を変更できる。
+ * <ul>
+ * <li>utility.readahead.blockSize : ブロックサイズ（バイト、デフォルト4MB）</li>
+ * <li>utility.readahead.bufferCount : １ファイルあたりのバッファ数（デフォルト3）</li>
+ * <li>utility.readahead.maxMemory : 全ファイルのバッファの合計の上限（バイト、デフォルト256MB）</li>
+ * </ul>
+ * JDKはposix_fadviseを公開していないため、順次読み込みのヒントはブロック単位の大きな連続読み込みで代替する。
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class ReadAheadInputStream extends InputStream {
+
+	/*
+	 * ブロックサイズ
+	 */
+	public static final int BLOCK_SIZE = Math.max(64 * 1024,
+			Integer.getInteger("utility.readahead.blockSize", 4 * 1024 * 1024).intValue());
+
+	/*
+	 * １ファイルあたりのバッファ数
+	 */
+	public static final int BUFFER_COUNT = Math.max(2,
+			Integer.getInteger("utility.readahead.bufferCount", 3).intValue());
+
+	/*
+	 * 全ファイルのバッファの合計の上限
+	 */
+	public static final long MAX_MEMORY = Math.max(1L,
+			Long.getLong("utility.readahead.maxMemory", 256L * 1024 * 1024).longValue());
+
+	/*
+	 * 同時に先読みできるファイル数
+	 */
+	private static final Semaphore STREAM_PERMITS = new Semaphore(
+			(int) Math.max(1L, Math.min(Integer.MAX_VALUE, MAX_MEMORY / ((long) BLOCK_SIZE * BUFFER_COUNT))));
+
+	/*
+	 * プールするバッファの上限数
+	 */
+	private static final int MAX_POOLED_BUFFERS = BUFFER_COUNT * 4;
+
+	/*
+	 * 再利用するダイレクトバッファのプール
+	 */
+	private static final ConcurrentLinkedQueue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<ByteBuffer>();
+
+	/*
+	 * 終端を表すバッファ
+	 */
+	private static final ByteBuffer END_OF_FILE = ByteBuffer.allocate(0);
+
+	/*
+	 * ファイルチャネル
+	 */
+	private final FileChannel channel;
+
+	/*
+	 * 空きバッファ
+	 */
+	private final BlockingQueue<ByteBuffer> freeBuffers;
+
+	/*
+	 * 読み込み済みバッファ（ファイル順）
+	 */
+	private final BlockingQueue<ByteBuffer> filledBuffers;
+
+	/*
+	 * 先読みスレッド
+	 */
+	private final Thread readerThread;
+
+	/*
+	 * 先読みスレッドで発生したエラー
+	 */
+	private volatile IOException readError = null;
+
+	/*
+	 * 読み込み中バッファ
+	 */
+	private ByteBuffer current = null;
+
+	/*
+	 * 取得済みバッファのバイト数の合計（読み込み中バッファを含む）
+	 */
+	private long takenBytes = 0;
+
+	/*
+	 * 読み込み中バッファのマーク位置（マークなしの場合は-1）
+	 */
+	private int markPosition = -1;
+
+	/*
+	 * 終端到達フラグ
+	 */
+	private boolean eof = false;
+
+	/*
+	 * クローズ済みフラグ
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * 先読み入力ストリームを開く。<br>
+	 * <br>
+	 * 先読み中のファイルのバッファの合計が上限に達している場合はnullを返却する。
+	 * @param filePath ファイルパス
+	 * @return 先読み入力ストリーム（上限に達している場合はnull）
+	 * @exception IOException ファイルが開けない場合
+	 */
+	public static ReadAheadInputStream tryOpen(String filePath) throws IOException {
+		if (!STREAM_PERMITS.tryAcquire()) {
+			return null;
+		}
+		try {
+			return new ReadAheadInputStream(filePath);
+		} catch (IOException e) {
+			STREAM_PERMITS.release();
+			throw e;
+		} catch (RuntimeException e) {
+			STREAM_PERMITS.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * 同時先読み数の確保は呼び出し元（{@link #tryOpen(String)}）で行う。
+	 * @param filePath ファイルパス
+	 * @exception IOException ファイルが開けない場合
+	 */
+	private ReadAheadInputStream(String filePath) throws IOException {
+		this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+		this.freeBuffers = new ArrayBlockingQueue<ByteBuffer>(BUFFER_COUNT);
+		this.filledBuffers = new ArrayBlockingQueue<ByteBuffer>(BUFFER_COUNT + 1);
+		for (int i = 0; i < BUFFER_COUNT; i++) {
+			this.freeBuffers.add(acquireBuffer());
+		}
+
+		this.readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readAhead();
+			}
+		}, "read-ahead-" + filePath);
+		this.readerThread.setDaemon(true);
+		this.readerThread.start();
+	}
+
+	/**
+	 * 先読み処理（先読みスレッド）<br>
+	 * <br>
+	 * 空きバッファにブロックを読み込み、読み込み済みバッファとして渡す。
+	 */
+	private void readAhead() {
+		try {
+			while (!this.closed) {
+				ByteBuffer buffer = this.freeBuffers.take();
+				buffer.clear();
+				while (buffer.hasRemaining()) {
+					if (this.channel.read(buffer) < 0) {
+						break;
+					}
+				}
+				buffer.flip();
+				if (!buffer.hasRemaining()) {
+					this.freeBuffers.add(buffer);
+					break;
+				}
+				this.filledBuffers.put(buffer);
+			}
+		} catch (InterruptedException e) {
+			// クローズによる中断
+			return;
+		} catch (IOException e) {
+			if (!this.closed) {
+				this.readError = e;
+			}
+		}
+		this.filledBuffers.offer(END_OF_FILE);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!this.fill()) {
+			return -1;
+		}
+		return this.current.get() & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!this.fill()) {
+			return -1;
+		}
+		int n = Math.min(len, this.current.remaining());
+		this.current.get(b, off, n);
+		return n;
+	}
+
+	/**
+	 * 残りバイト数取得<br>
+	 * <br>
+	 * ファイルサイズから取得済みのバイト数を引いた値を返却する。
+	 * 読み込み中ブロックを読み終えても、後続のデータがある間は0を返却しない
+	 * （{@link java.util.zip.GZIPInputStream}はこの値で後続のgzipメンバの有無を判定するため）。
+	 */
+	@Override
+	public int available() throws IOException {
+		if (this.closed) {
+			throw new IOException("ストリームはクローズされています。");
+		}
+		if (this.eof) {
+			return 0;
+		}
+		long remaining = this.channel.size() - this.takenBytes;
+		if (this.current != null) {
+			remaining += this.current.remaining();
+		}
+		return (int) Math.max(0, Math.min(Integer.MAX_VALUE, remaining));
+	}
+
+	/**
+	 * マーク設定<br>
+	 * <br>
+	 * 読み込み中ブロックの範囲内でのみ{@link #reset()}できる。
+	 */
+	@Override
+	public synchronized void mark(int readlimit) {
+		try {
+			if (this.fill() && this.current.remaining() >= readlimit) {
+				this.markPosition = this.current.position();
+				return;
+			}
+		} catch (IOException e) {
+			// マーク不可として扱う
+		}
+		this.markPosition = -1;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		if (this.markPosition < 0) {
+			throw new IOException("マークが無効です。");
+		}
+		this.current.position(this.markPosition);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	/**
+	 * ストリーム終了処理<br>
+	 * <br>
+	 * 先読みスレッドを停止し、バッファをプールに戻す。
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		STREAM_PERMITS.release();
+		this.readerThread.interrupt();
+		try {
+			this.readerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.channel.close();
+
+		if (this.current != null) {
+			releaseBuffer(this.current);
+			this.current = null;
+		}
+		ByteBuffer buffer;
+		while ((buffer = this.freeBuffers.poll()) != null) {
+			releaseBuffer(buffer);
+		}
+		while ((buffer = this.filledBuffers.poll()) != null) {
+			releaseBuffer(buffer);
+		}
+	}
+
+	/**
+	 * 読み込み中バッファの補充<br>
+	 * <br>
+	 * 読み込み中バッファを読み終えている場合は、空きバッファに戻して次の読み込み済みバッファを取得する。
+	 * @return true:データあり／false:終端
+	 */
+	private boolean fill() throws IOException {
+		if (this.closed) {
+			throw new IOException("ストリームはクローズされています。");
+		}
+		while (this.current == null || !this.current.hasRemaining()) {
+			if (this.eof) {
+				return false;
+			}
+			if (this.current != null) {
+				this.freeBuffers.add(this.current);
+				this.current = null;
+				this.markPosition = -1;
+			}
+			ByteBuffer next;
+			try {
+				next = this.filledBuffers.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("ファイルの読み込みが中断されました。");
+			}
+			if (next == END_OF_FILE) {
+				this.eof = true;
+				if (this.readError != null) {
+					throw this.readError;
+				}
+				return false;
+			}
+			this.current = next;
+			this.takenBytes += next.limit();
+		}
+		return true;
+	}
+
+	/**
+	 * プールからバッファを取得する。<br>
+	 * @return ダイレクトバッファ
+	 */
+	private static ByteBuffer acquireBuffer() {
+		ByteBuffer buffer = BUFFER_POOL.poll();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		}
+		return buffer;
+	}
+
+	/**
+	 * バッファをプールに戻す。<br>
+	 * @param buffer ダイレクトバッファ
+	 */
+	private static void releaseBuffer(ByteBuffer buffer) {
+		if (buffer != END_OF_FILE && buffer.isDirect() && BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+			buffer.clear();
+			BUFFER_POOL.offer(buffer);
+		}
+	}
+}
@@ -0,0 +1,534 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	Windows31jCharset.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *
+ */
+package utility;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/*
+ * windows-31j文字コードクラス。<br>
+ * <br>
+ * JDK標準のwindows-31j（MS932）と同じ変換を、表引きで高速に行う。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>ASCII文字の8バイト単位の一括変換</li>
+ * <li>２バイト文字の変換表（フラットな配列）による変換</li>
+ * <li>変換できない文字・不正なバイト列の扱いはJDK標準と同一</li>
+ * <li>JDK標準の文字コードとのバイト単位の比較（検証モード）</li>
+ * </ul>
+ * 変換表はクラス初期化時にJDK標準の文字コードから作成するため、対応表の差異は発生しない。
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class Windows31jCharset extends Charset {
+
+	/*
+	 * インスタンス
+	 */
+	public static final Windows31jCharset INSTANCE;
+
+	/*
+	 * JDK標準のwindows-31j
+	 */
+	private static final Charset JDK_CHARSET = Charset.forName("windows-31j");
+
+	/*
+	 * 8バイト単位の読み込み用
+	 */
+	private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	/*
+	 * 8バイトすべてがASCIIか判定するマスク
+	 */
+	private static final long NON_ASCII_MASK = 0x8080808080808080L;
+
+	/*
+	 * 変換状態：変換可能
+	 */
+	private static final byte MAPPED = 0;
+
+	/*
+	 * 変換状態：２バイト文字の１バイト目
+	 */
+	private static final byte LEAD = Byte.MAX_VALUE;
+
+	/*
+	 * 変換不可（文字→バイト）
+	 */
+	private static final char UNMAPPABLE_ENCODING = '\uFFFF';
+
+	/*
+	 * １バイト文字の変換表・変換状態
+	 * 変換状態は、不正なバイト列の場合はその長さ、変換できない文字の場合は長さの負数とする。
+	 */
+	private static final char[] B2C_SINGLE = new char[0x100];
+	private static final byte[] SINGLE_STATUS = new byte[0x100];
+
+	/*
+	 * ２バイト文字の変換表・変換状態（添字は「１バイト目 << 8 | ２バイト目」）
+	 */
+	private static final char[] B2C_DOUBLE = new char[0x10000];
+	private static final byte[] DOUBLE_STATUS = new byte[0x10000];
+
+	/*
+	 * 文字→バイトの変換表（0xFF以下は１バイト、それ以外は２バイト）
+	 */
+	private static final char[] C2B = new char[0x10000];
+
+	/*
+	 * ASCII部分がJDK標準と同一か（一括変換の可否）
+	 */
+	private static final boolean ASCII_COMPATIBLE;
+
+	static {
+		CharsetDecoder decoder = JDK_CHARSET.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		CharsetEncoder encoder = JDK_CHARSET.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		CharBuffer chars = CharBuffer.allocate(4);
+		ByteBuffer bytes = ByteBuffer.allocate(4);
+
+		// バイト→文字
+		boolean asciiCompatible = true;
+		for (int b1 = 0; b1 < 0x100; b1++) {
+			byte status = decodeStatus(decoder, new byte[] { (byte) b1 }, chars);
+			SINGLE_STATUS[b1] = status;
+			if (status == MAPPED) {
+				B2C_SINGLE[b1] = chars.get(0);
+			}
+			if (b1 < 0x80 && (status != MAPPED || B2C_SINGLE[b1] != b1)) {
+				asciiCompatible = false;
+			}
+			if (status != LEAD) {
+				continue;
+			}
+			for (int b2 = 0; b2 < 0x100; b2++) {
+				int index = (b1 << 8) | b2;
+				byte doubleStatus = decodeStatus(decoder, new byte[] { (byte) b1, (byte) b2 }, chars);
+				DOUBLE_STATUS[index] = doubleStatus;
+				if (doubleStatus == MAPPED) {
+					B2C_DOUBLE[index] = chars.get(0);
+				}
+			}
+		}
+		ASCII_COMPATIBLE = asciiCompatible;
+
+		// 文字→バイト
+		Arrays.fill(C2B, UNMAPPABLE_ENCODING);
+		for (int c = 0; c < 0x10000; c++) {
+			if (Character.isSurrogate((char) c)) {
+				continue;
+			}
+			chars.clear();
+			chars.put((char) c).flip();
+			bytes.clear();
+			encoder.reset();
+			CoderResult result = encoder.encode(chars, bytes, true);
+			if (result.isError() || chars.hasRemaining()) {
+				continue;
+			}
+			encoder.flush(bytes);
+			bytes.flip();
+			if (bytes.remaining() == 1) {
+				C2B[c] = (char) (bytes.get(0) & 0xff);
+			} else if (bytes.remaining() == 2) {
+				C2B[c] = (char) (((bytes.get(0) & 0xff) << 8) | (bytes.get(1) & 0xff));
+			}
+		}
+
+		INSTANCE = new Windows31jCharset();
+	}
+
+	/**
+	 * コンストラクタ<br>
+	 */
+	private Windows31jCharset() {
+		super("x-utility-windows-31j", null);
+	}
+
+	/**
+	 * windows-31j（別名を含む）か判定する。<br>
+	 * @param charsetName charset名前
+	 * @return true:windows-31j／false:それ以外、または不正な名前
+	 */
+	public static boolean isWindows31j(String charsetName) {
+		if (charsetName == null || "".equals(charsetName)) {
+			return false;
+		}
+		try {
+			return JDK_CHARSET.equals(Charset.forName(charsetName));
+		} catch (IllegalArgumentException e) {
+			// 不正・未サポートのcharset名前
+			return false;
+		}
+	}
+
+	/**
+	 * 検証処理<br>
+	 * <br>
+	 * 全１バイト・２バイトの組み合わせと全文字について、JDK標準の文字コードと変換結果をバイト単位で比較する。
+	 * @return true:一致／false:不一致あり
+	 */
+	public static boolean verify() {
+		// バイト→文字（１バイト目ごとに、全２バイト目を連結して比較）
+		for (int b1 = 0; b1 < 0x100; b1++) {
+			byte[] data = new byte[0x100 * 2 + 1];
+			for (int b2 = 0; b2 < 0x100; b2++) {
+				data[b2 * 2] = (byte) b1;
+				data[b2 * 2 + 1] = (byte) b2;
+			}
+			// 末尾が１バイト目のみの場合
+			data[data.length - 1] = (byte) b1;
+			if (!verify(data)) {
+				return false;
+			}
+		}
+
+		// 文字→バイト（サロゲートは単独・ペア・末尾の場合を比較する）
+		StringBuilder text = new StringBuilder(0x10000 + 8);
+		for (int c = 0; c < 0x10000; c++) {
+			text.append((char) c);
+		}
+		text.append("\uD842\uDFB7a\uDFB7\uD842");
+		return verify(text.toString());
+	}
+
+	/**
+	 * 検証処理（バイト→文字）<br>
+	 * @param data バイト列
+	 * @return true:一致／false:不一致あり
+	 */
+	public static boolean verify(byte[] data) {
+		return new String(data, JDK_CHARSET).equals(new String(data, INSTANCE));
+	}
+
+	/**
+	 * 検証処理（文字→バイト）<br>
+	 * @param text 文字列
+	 * @return true:一致／false:不一致あり
+	 */
+	public static boolean verify(String text) {
+		return Arrays.equals(text.getBytes(JDK_CHARSET), text.getBytes(INSTANCE));
+	}
+
+	@Override
+	public boolean contains(Charset cs) {
+		return cs instanceof Windows31jCharset || JDK_CHARSET.contains(cs);
+	}
+
+	@Override
+	public CharsetDecoder newDecoder() {
+		return new Decoder(this);
+	}
+
+	@Override
+	public CharsetEncoder newEncoder() {
+		return new Encoder(this);
+	}
+
+	/**
+	 * JDK標準のデコーダでバイト列を変換し、変換状態を取得する。<br>
+	 * @param decoder デコーダ
+	 * @param data バイト列
+	 * @param chars 変換結果
+	 * @return 変換状態
+	 */
+	private static byte decodeStatus(CharsetDecoder decoder, byte[] data, CharBuffer chars) {
+		ByteBuffer in = ByteBuffer.wrap(data);
+		chars.clear();
+		decoder.reset();
+		CoderResult result = decoder.decode(in, chars, false);
+		if (result.isError()) {
+			return errorStatus(result);
+		}
+		if (chars.position() == 0 && in.hasRemaining()) {
+			// ２バイト目待ち
+			return LEAD;
+		}
+		if (chars.position() != 1 || in.hasRemaining()) {
+			// 想定外の変換（１バイト目のみで変換された等）は不正として扱う
+			return (byte) data.length;
+		}
+		return MAPPED;
+	}
+
+	private static byte errorStatus(CoderResult result) {
+		if (result.isMalformed()) {
+			return (byte) result.length();
+		}
+		return (byte) -result.length();
+	}
+
+	private static CoderResult errorResult(byte status) {
+		if (status > 0) {
+			return CoderResult.malformedForLength(status);
+		}
+		return CoderResult.unmappableForLength(-status);
+	}
+
+	/*
+	 * デコーダ（バイト→文字）
+	 */
+	private static class Decoder extends CharsetDecoder {
+
+		Decoder(Charset cs) {
+			super(cs, 1.0f, 1.0f);
+		}
+
+		@Override
+		protected CoderResult decodeLoop(ByteBuffer src, CharBuffer dst) {
+			if (src.hasArray() && dst.hasArray()) {
+				return this.decodeArrayLoop(src, dst);
+			}
+			return this.decodeBufferLoop(src, dst);
+		}
+
+		private CoderResult decodeArrayLoop(ByteBuffer src, CharBuffer dst) {
+			byte[] sa = src.array();
+			int sp = src.arrayOffset() + src.position();
+			int sl = src.arrayOffset() + src.limit();
+			char[] da = dst.array();
+			int dp = dst.arrayOffset() + dst.position();
+			int dl = dst.arrayOffset() + dst.limit();
+			try {
+				while (sp < sl) {
+					// ASCII文字は8バイト単位で変換する
+					if (ASCII_COMPATIBLE) {
+						while (sp + 8 <= sl && dp + 8 <= dl
+								&& ((long) LONG_VIEW.get(sa, sp) & NON_ASCII_MASK) == 0) {
+							for (int i = 0; i < 8; i++) {
+								da[dp + i] = (char) sa[sp + i];
+							}
+							sp += 8;
+							dp += 8;
+						}
+						if (sp >= sl) {
+							break;
+						}
+					}
+
+					int b1 = sa[sp] & 0xff;
+					byte status = SINGLE_STATUS[b1];
+					if (status == MAPPED) {
+						if (dp >= dl) {
+							return CoderResult.OVERFLOW;
+						}
+						da[dp++] = B2C_SINGLE[b1];
+						sp++;
+						continue;
+					}
+					if (status != LEAD) {
+						return errorResult(status);
+					}
+					if (sp + 1 >= sl) {
+						// ２バイト目待ち
+						return CoderResult.UNDERFLOW;
+					}
+					int index = (b1 << 8) | (sa[sp + 1] & 0xff);
+					status = DOUBLE_STATUS[index];
+					if (status != MAPPED) {
+						return errorResult(status);
+					}
+					if (dp >= dl) {
+						return CoderResult.OVERFLOW;
+					}
+					da[dp++] = B2C_DOUBLE[index];
+					sp += 2;
+				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(sp - src.arrayOffset());
+				dst.position(dp - dst.arrayOffset());
+			}
+		}
+
+		private CoderResult decodeBufferLoop(ByteBuffer src, CharBuffer dst) {
+			int mark = src.position();
+			try {
+				while (src.hasRemaining()) {
+					int b1 = src.get() & 0xff;
+					byte status = SINGLE_STATUS[b1];
+					if (status == MAPPED) {
+						if (!dst.hasRemaining()) {
+							return CoderResult.OVERFLOW;
+						}
+						dst.put(B2C_SINGLE[b1]);
+						mark++;
+						continue;
+					}
+					if (status != LEAD) {
+						return errorResult(status);
+					}
+					if (!src.hasRemaining()) {
+						return CoderResult.UNDERFLOW;
+					}
+					int index = (b1 << 8) | (src.get() & 0xff);
+					status = DOUBLE_STATUS[index];
+					if (status != MAPPED) {
+						return errorResult(status);
+					}
+					if (!dst.hasRemaining()) {
+						return CoderResult.OVERFLOW;
+					}
+					dst.put(B2C_DOUBLE[index]);
+					mark += 2;
+				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(mark);
+			}
+		}
+	}
+
+	/*
+	 * エンコーダ（文字→バイト）
+	 */
+	private static class Encoder extends CharsetEncoder {
+
+		Encoder(Charset cs) {
+			super(cs, 1.1f, 2.0f, new byte[] { (byte) '?' });
+		}
+
+		@Override
+		public boolean canEncode(char c) {
+			return !Character.isSurrogate(c) && C2B[c] != UNMAPPABLE_ENCODING;
+		}
+
+		@Override
+		protected CoderResult encodeLoop(CharBuffer src, ByteBuffer dst) {
+			if (src.hasArray() && dst.hasArray()) {
+				return this.encodeArrayLoop(src, dst);
+			}
+			return this.encodeBufferLoop(src, dst);
+		}
+
+		private CoderResult encodeArrayLoop(CharBuffer src, ByteBuffer dst) {
+			char[] sa = src.array();
+			int sp = src.arrayOffset() + src.position();
+			int sl = src.arrayOffset() + src.limit();
+			byte[] da = dst.array();
+			int dp = dst.arrayOffset() + dst.position();
+			int dl = dst.arrayOffset() + dst.limit();
+			try {
+				while (sp < sl) {
+					// ASCII文字は4文字単位で変換する
+					if (ASCII_COMPATIBLE) {
+						while (sp + 4 <= sl && dp + 4 <= dl
+								&& (sa[sp] | sa[sp + 1] | sa[sp + 2] | sa[sp + 3]) < 0x80) {
+							da[dp] = (byte) sa[sp];
+							da[dp + 1] = (byte) sa[sp + 1];
+							da[dp + 2] = (byte) sa[sp + 2];
+							da[dp + 3] = (byte) sa[sp + 3];
+							sp += 4;
+							dp += 4;
+						}
+						if (sp >= sl) {
+							break;
+						}
+					}
+
+					char c = sa[sp];
+					if (Character.isSurrogate(c)) {
+						return surrogateResult(c, sp + 1 < sl ? sa[sp + 1] : 0, sp + 1 < sl);
+					}
+					char code = C2B[c];
+					if (code == UNMAPPABLE_ENCODING) {
+						return CoderResult.unmappableForLength(1);
+					}
+					if (code <= 0xff) {
+						if (dp >= dl) {
+							return CoderResult.OVERFLOW;
+						}
+						da[dp++] = (byte) code;
+					} else {
+						if (dp + 1 >= dl) {
+							return CoderResult.OVERFLOW;
+						}
+						da[dp++] = (byte) (code >> 8);
+						da[dp++] = (byte) code;
+					}
+					sp++;
+				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(sp - src.arrayOffset());
+				dst.position(dp - dst.arrayOffset());
+			}
+		}
+
+		private CoderResult encodeBufferLoop(CharBuffer src, ByteBuffer dst) {
+			int mark = src.position();
+			try {
+				while (src.hasRemaining()) {
+					char c = src.get();
+					if (Character.isSurrogate(c)) {
+						boolean hasNext = src.hasRemaining();
+						return surrogateResult(c, hasNext ? src.get() : 0, hasNext);
+					}
+					char code = C2B[c];
+					if (code == UNMAPPABLE_ENCODING) {
+						return CoderResult.unmappableForLength(1);
+					}
+					if (code <= 0xff) {
+						if (!dst.hasRemaining()) {
+							return CoderResult.OVERFLOW;
+						}
+						dst.put((byte) code);
+					} else {
+						if (dst.remaining() < 2) {
+							return CoderResult.OVERFLOW;
+						}
+						dst.put((byte) (code >> 8));
+						dst.put((byte) code);
+					}
+					mark++;
+				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(mark);
+			}
+		}
+
+		/**
+		 * サロゲートの変換結果（JDK標準と同じく、ペアは変換不可、単独は不正とする）<br>
+		 * @param c サロゲート文字
+		 * @param next 次の文字
+		 * @param hasNext 次の文字の有無
+		 * @return 変換結果
+		 */
+		private static CoderResult surrogateResult(char c, char next, boolean hasNext) {
+			if (Character.isHighSurrogate(c)) {
+				if (!hasNext) {
+					// 下位サロゲート待ち
+					return CoderResult.UNDERFLOW;
+				}
+				if (Character.isLowSurrogate(next)) {
+					return CoderResult.unmappableForLength(2);
+				}
+			}
+			return CoderResult.malformedForLength(1);
+		}
+	}
+}
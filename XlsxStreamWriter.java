@@ -0,0 +1,395 @@
+//* XXXXXXXXシステム
+//**************************************************:
+/*
+ * モジュール名
+ * 	XlsxStreamWriter.java
+ *
+ * 変更履歴
+ *　変更日		変更者		変更概要
+ *	2026/10/19	agent		新規作成
+ *
+ */
+package utility;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * XLSXファイル書き込みクラス。<br>
+ * <br>
+ * 行データをSpreadsheetML（Office Open XML）としてZIPに直接書き込む。
+ * シートは行ごとに出力するため、行数によらずメモリ使用量は一定となる。<br>
+ * 以下の機能をサポートする。
+ * <ul>
+ * <li>インライン文字列（デフォルト）での出力</li>
+ * <li>共有文字列テーブルでの出力（重複の多いデータ向け。異なり文字列はメモリに保持する）</li>
+ * </ul>
+ * 値はすべて文字列セルとして出力する（先頭ゼロ等を保持するため）。<br>
+ * Excelの制限を超える列（{@value #MAX_COLUMNS}列目以降）・文字数（{@value #MAX_CELL_LENGTH}文字以降）は切り捨てる。
+ * @since  2026/10/19
+ * @version 1.0
+ * @author  agent
+ */
+public class XlsxStreamWriter {
+
+	/*
+	 * １シートの最大行数
+	 */
+	public static final int MAX_ROWS = 1048576;
+
+	/*
+	 * １シートの最大列数
+	 */
+	public static final int MAX_COLUMNS = 16384;
+
+	/*
+	 * １セルの最大文字数
+	 */
+	public static final int MAX_CELL_LENGTH = 32767;
+
+	/*
+	 * XML宣言
+	 */
+	private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+	/*
+	 * SpreadsheetMLの名前空間
+	 */
+	private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+	/*
+	 * ZIP出力ストリーム
+	 */
+	private final ZipOutputStream zip;
+
+	/*
+	 * シート書き込み用Writer
+	 */
+	private Writer sheetWriter = null;
+
+	/*
+	 * 共有文字列フラグ
+	 */
+	private boolean sharedStringsFlg = false;
+
+	/*
+	 * 共有文字列の番号
+	 */
+	private HashMap<String, Integer> sharedStringMap = null;
+
+	/*
+	 * 共有文字列（番号順）
+	 */
+	private ArrayList<String> sharedStringList = null;
+
+	/*
+	 * 共有文字列の参照数
+	 */
+	private long sharedStringCount = 0;
+
+	/*
+	 * 書き込み行数
+	 */
+	private int rowCount = 0;
+
+	/*
+	 * クローズ済みフラグ
+	 */
+	private boolean closed = false;
+
+	/**
+	 * コンストラクタ<br>
+	 * <br>
+	 * @param out 出力先ストリーム
+	 */
+	public XlsxStreamWriter(OutputStream out) {
+		this.zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+	}
+
+	/**
+	 * 共有文字列テーブルを使用するか設定する。<br>
+	 * 最初の行を書き込む前に呼び出すこと。
+	 * @param sharedStringsFlg true:共有文字列／false:インライン文字列
+	 */
+	public void setSharedStrings(boolean sharedStringsFlg) {
+		if (this.sheetWriter == null) {
+			this.sharedStringsFlg = sharedStringsFlg;
+		}
+	}
+
+	/**
+	 * 書き込み行数を取得する。<br>
+	 * @return rowCount
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * １行分の書き込み処理<br>
+	 * <br>
+	 * 使用例
+	 * <pre>
+	 * 	<code>instance.writeRow(rowData);</code>
+	 * </pre>
+	 * @param rowData 一行分のデータ
+	 * @exception IOException 入出力エラー、または最大行数を超えた場合
+	 */
+	public void writeRow(List<String> rowData) throws IOException {
+		if (this.closed) {
+			throw new IOException("ファイルはクローズされています。");
+		}
+		if (this.rowCount >= MAX_ROWS) {
+			throw new IOException("シートの最大行数を超えています。");
+		}
+		this.startSheet();
+
+		this.rowCount++;
+		Writer w = this.sheetWriter;
+		w.write("<row r=\"");
+		w.write(Integer.toString(this.rowCount));
+		w.write("\">");
+		int columns = Math.min(rowData.size(), MAX_COLUMNS);
+		for (int c = 0; c < columns; c++) {
+			String value = rowData.get(c);
+			if (value == null || value.isEmpty()) {
+				continue;
+			}
+			if (value.length() > MAX_CELL_LENGTH) {
+				value = value.substring(0, MAX_CELL_LENGTH);
+			}
+			w.write("<c r=\"");
+			w.write(columnName(c));
+			w.write(Integer.toString(this.rowCount));
+			if (this.sharedStringsFlg) {
+				w.write("\" t=\"s\"><v>");
+				w.write(Integer.toString(this.sharedStringIndex(value)));
+				w.write("</v></c>");
+			} else {
+				w.write("\" t=\"inlineStr\"><is>");
+				writeText(w, value);
+				w.write("</is></c>");
+			}
+		}
+		w.write("</row>");
+	}
+
+	/**
+	 * ファイル書き込み終了処理<br>
+	 * <br>
+	 * シートを閉じ、ブック・共有文字列等の残りの構成ファイルを書き込む。
+	 * @exception IOException 入出力エラー
+	 */
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			this.startSheet();
+			this.sheetWriter.write("</sheetData></worksheet>");
+			this.sheetWriter.flush();
+			this.zip.closeEntry();
+
+			if (this.sharedStringsFlg) {
+				this.zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+				Writer w = this.newEntryWriter();
+				w.write(XML_HEADER);
+				w.write("<sst xmlns=\"" + MAIN_NS + "\" count=\"" + this.sharedStringCount
+						+ "\" uniqueCount=\"" + this.sharedStringList.size() + "\">");
+				for (String value : this.sharedStringList) {
+					w.write("<si>");
+					writeText(w, value);
+					w.write("</si>");
+				}
+				w.write("</sst>");
+				w.flush();
+				this.zip.closeEntry();
+			}
+
+			this.writeEntry("[Content_Types].xml", XML_HEADER
+					+ "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+					+ "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+					+ "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+					+ "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+					+ "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+					+ "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+					+ (this.sharedStringsFlg
+							? "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>"
+							: "")
+					+ "</Types>");
+			this.writeEntry("_rels/.rels", XML_HEADER
+					+ "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+					+ "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+					+ "</Relationships>");
+			this.writeEntry("xl/workbook.xml", XML_HEADER
+					+ "<workbook xmlns=\"" + MAIN_NS + "\""
+					+ " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+					+ "<sheets><sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+					+ "</workbook>");
+			this.writeEntry("xl/_rels/workbook.xml.rels", XML_HEADER
+					+ "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+					+ "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+					+ "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+					+ (this.sharedStringsFlg
+							? "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+							: "")
+					+ "</Relationships>");
+			this.writeEntry("xl/styles.xml", XML_HEADER
+					+ "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+					+ "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"游ゴシック\"/><family val=\"3\"/><charset val=\"128\"/></font></fonts>"
+					+ "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+					+ "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+					+ "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+					+ "<cellXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/></cellXfs>"
+					+ "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+					+ "</styleSheet>");
+		} finally {
+			this.zip.close();
+			this.sharedStringMap = null;
+			this.sharedStringList = null;
+		}
+	}
+
+	/**
+	 * シートの書き込み開始（初回のみ）<br>
+	 */
+	private void startSheet() throws IOException {
+		if (this.sheetWriter != null) {
+			return;
+		}
+		if (this.sharedStringsFlg) {
+			this.sharedStringMap = new HashMap<String, Integer>();
+			this.sharedStringList = new ArrayList<String>();
+		}
+		this.zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+		this.sheetWriter = this.newEntryWriter();
+		this.sheetWriter.write(XML_HEADER);
+		this.sheetWriter.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+	}
+
+	/**
+	 * 共有文字列の番号を取得する（未登録の場合は登録する）。<br>
+	 * @param value 文字列
+	 * @return 共有文字列の番号
+	 */
+	private int sharedStringIndex(String value) {
+		this.sharedStringCount++;
+		Integer index = this.sharedStringMap.get(value);
+		if (index == null) {
+			index = Integer.valueOf(this.sharedStringList.size());
+			this.sharedStringMap.put(value, index);
+			this.sharedStringList.add(value);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * 構成ファイルの書き込み<br>
+	 * @param name ZIP内のパス
+	 * @param content 内容
+	 */
+	private void writeEntry(String name, String content) throws IOException {
+		this.zip.putNextEntry(new ZipEntry(name));
+		this.zip.write(content.getBytes(StandardCharsets.UTF_8));
+		this.zip.closeEntry();
+	}
+
+	/**
+	 * 現在のZIPエントリに書き込むWriterを生成する（クローズしてもZIPは閉じない）。<br>
+	 * @return Writer
+	 */
+	private Writer newEntryWriter() {
+		return new BufferedWriter(new OutputStreamWriter(new FilterOutputStream(this.zip) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				this.flush();
+			}
+		}, StandardCharsets.UTF_8), 64 * 1024);
+	}
+
+	/**
+	 * 文字列要素（&lt;t&gt;）の書き込み<br>
+	 * <br>
+	 * XMLの特殊文字はエスケープし、XMLで使用できない制御文字は除去する。
+	 * @param w Writer
+	 * @param value 文字列
+	 */
+	private static void writeText(Writer w, String value) throws IOException {
+		if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+			w.write("<t xml:space=\"preserve\">");
+		} else {
+			w.write("<t>");
+		}
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '&':
+				w.write("&amp;");
+				break;
+			case '<':
+				w.write("&lt;");
+				break;
+			case '>':
+				w.write("&gt;");
+				break;
+			case '\"':
+				w.write("&quot;");
+				break;
+			default:
+				if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+					break;
+				}
+				if (c == '\uFFFE' || c == '\uFFFF') {
+					break;
+				}
+				if (Character.isHighSurrogate(c)) {
+					if (i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+						w.write(c);
+						w.write(value.charAt(++i));
+					}
+					break;
+				}
+				if (Character.isLowSurrogate(c)) {
+					break;
+				}
+				w.write(c);
+				break;
+			}
+		}
+		w.write("</t>");
+	}
+
+	/**
+	 * 列名（A, B, ... XFD）を取得する。<br>
+	 * @param column 列番号（0始まり）
+	 * @return 列名
+	 */
+	private static String columnName(int column) {
+		StringBuilder name = new StringBuilder(3);
+		int n = column + 1;
+		while (n > 0) {
+			int rem = (n - 1) % 26;
+			name.insert(0, (char) ('A' + rem));
+			n = (n - 1) / 26;
+		}
+		return name.toString();
+	}
+}